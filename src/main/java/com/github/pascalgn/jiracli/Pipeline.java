@@ -16,18 +16,36 @@
 package com.github.pascalgn.jiracli;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.github.pascalgn.jiracli.command.Command;
+import com.github.pascalgn.jiracli.command.CommandFactory;
 import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.model.Data;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.NamedThreadFactory;
+import com.github.pascalgn.jiracli.util.ParallelHint;
+
+class Pipeline implements AutoCloseable {
+    private static final boolean PARALLEL = Boolean.getBoolean("jiracli.pipeline.parallel");
+
+    private static final int CAPACITY = Math.max(1, Integer.getInteger("jiracli.pipeline.capacity", 4));
 
-class Pipeline {
     public static final class Builder {
         private final List<Command> commands;
+        private boolean parallel;
+        private int concurrency;
+        private boolean ordered;
 
         public Builder() {
             this.commands = new ArrayList<>();
+            this.parallel = PARALLEL;
+            this.concurrency = 1;
+            this.ordered = true;
         }
 
         public Builder add(Command command) {
@@ -35,25 +53,95 @@ class Pipeline {
             return this;
         }
 
+        /**
+         * If set, every command will process its input in a separate thread
+         */
+        public Builder parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of items which commands may process at the same time, see {@link ParallelHint}
+         */
+        public Builder concurrency(int concurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        /**
+         * If not set, items which are processed at the same time will be returned in the order of their completion
+         */
+        public Builder ordered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
         public Pipeline build() {
-            return new Pipeline(commands);
+            return new Pipeline(commands, parallel, concurrency, ordered);
         }
     }
 
     private final List<Command> commands;
+    private final boolean parallel;
+    private final int concurrency;
+    private final boolean ordered;
 
-    private Pipeline(List<Command> commands) {
+    private ExecutorService executor;
+
+    private Pipeline(List<Command> commands, boolean parallel, int concurrency, boolean ordered) {
         if (commands.isEmpty()) {
             throw new IllegalArgumentException("No commands given!");
         }
         this.commands = new ArrayList<>(commands);
+        this.parallel = parallel;
+        this.concurrency = concurrency;
+        this.ordered = ordered;
     }
 
     public Data execute(Context context, Data input) {
         Data result = input;
-        for (Command command : commands) {
+        for (int i = 0; i < commands.size(); i++) {
+            Command command = commands.get(i);
             result = command.execute(context, result);
+            if (parallel && i < commands.size() - 1 && !CommandFactory.getInstance().hasSideEffects(command)) {
+                // the next command will take the results from a bounded queue, filled by a separate thread,
+                // but items of commands with side effects must only be processed when they are requested:
+                result = result.prefetch(getExecutor(), CAPACITY);
+            }
         }
         return result;
     }
+
+    /**
+     * Returns the hints which should be used when requesting the result of this pipeline
+     */
+    public Set<Hint> getHints() {
+        if (concurrency > 1) {
+            return Collections.<Hint> singleton(new ParallelHint(getExecutor(), concurrency, ordered));
+        } else {
+            return Hint.none();
+        }
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(new NamedThreadFactory("Pipeline"));
+        }
+        return executor;
+    }
+
+    /**
+     * Stops all threads which are still requesting results
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
 }
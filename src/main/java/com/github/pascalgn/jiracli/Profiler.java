@@ -0,0 +1,238 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import com.github.pascalgn.jiracli.command.Command;
+import com.github.pascalgn.jiracli.context.Context;
+import com.github.pascalgn.jiracli.context.WebService.Statistics;
+import com.github.pascalgn.jiracli.model.Data;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Probe;
+import com.github.pascalgn.jiracli.util.StringUtils;
+
+/**
+ * Measures the commands of a pipeline, while they are executed and while items are requested from their results.
+ * Items of the previous command are requested while the next command requests its items, so the values of the
+ * previous command are subtracted. Allocated bytes are only measured for the requesting thread, not for threads
+ * processing items in parallel.
+ * <p>
+ * When no items should be requested, the first command will not supply any items. This can be used to show the
+ * hints which are passed to the commands, without sending requests for the items. Commands which should not be
+ * executed at all, like commands with side effects, can be added with {@link #skip(String)}.
+ */
+class Profiler {
+    private final Statistics statistics;
+    private final boolean requestItems;
+    private final List<Stage> stages;
+
+    public Profiler(Statistics statistics, boolean requestItems) {
+        this.statistics = statistics;
+        this.requestItems = requestItems;
+        this.stages = new ArrayList<>();
+    }
+
+    /**
+     * Returns a command which executes the given command and is measured by this profiler
+     */
+    public Command add(final Command command, String name) {
+        final Stage stage = new Stage(name, requestItems || !stages.isEmpty());
+        stages.add(stage);
+        return new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                Sample start = sample();
+                try {
+                    return command.execute(context, input).probe(stage);
+                } finally {
+                    stage.executed(start);
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds a command which will not be executed
+     */
+    public void skip(String name) {
+        Stage stage = new Stage(name, false);
+        stage.skipped = true;
+        stages.add(stage);
+    }
+
+    /**
+     * Returns one line per command with the hints which have been used to request the items
+     */
+    public List<String> getHints() {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            lines.add((i + 1) + ". " + stage.name);
+            if (stage.skipped) {
+                lines.add("   not executed, the command has side effects or follows such a command");
+            } else {
+                lines.add("   requested with: " + stage.getHints());
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns one line per command with the measured values and a line with the total values
+     */
+    public List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        Sample total = new Sample(0, 0, 0, 0);
+        Sample previous = new Sample(0, 0, 0, 0);
+        for (int i = 0; i < stages.size(); i++) {
+            Stage stage = stages.get(i);
+            Sample sample;
+            synchronized (stage) {
+                sample = stage.executed.add(stage.requested).subtract(previous);
+                previous = stage.requested;
+                lines.add((i + 1) + ". " + stage.name + ": " + format(sample) + ", " + stage.items
+                        + (stage.items == 1 ? " item" : " items"));
+            }
+            total = total.add(sample);
+        }
+        lines.add("Total: " + format(total));
+        return lines;
+    }
+
+    private Sample sample() {
+        long requests = (statistics == null ? 0 : statistics.getRequests());
+        long cacheHits = (statistics == null ? 0 : statistics.getCacheHits());
+        return new Sample(System.nanoTime(), requests, cacheHits, Allocation.get());
+    }
+
+    private static String format(Sample sample) {
+        StringBuilder str = new StringBuilder();
+        str.append(TimeUnit.NANOSECONDS.toMillis(sample.time)).append(" ms");
+        str.append(", ").append(sample.requests).append(sample.requests == 1 ? " request" : " requests");
+        str.append(", ").append(sample.cacheHits).append(sample.cacheHits == 1 ? " cache hit" : " cache hits");
+        if (Allocation.SUPPORTED) {
+            str.append(", ").append((sample.allocated + 1023) / 1024).append(" KB allocated");
+        }
+        return str.toString();
+    }
+
+    private class Stage implements Probe {
+        private final String name;
+        private final boolean requestItems;
+        private final Set<String> hints;
+
+        private boolean skipped;
+        private boolean started;
+        private Sample executed;
+        private Sample requested;
+        private long items;
+
+        public Stage(String name, boolean requestItems) {
+            this.name = name;
+            this.requestItems = requestItems;
+            this.hints = new TreeSet<>();
+            this.executed = new Sample(0, 0, 0, 0);
+            this.requested = new Sample(0, 0, 0, 0);
+        }
+
+        public synchronized void executed(Sample start) {
+            executed = executed.add(sample().subtract(start));
+        }
+
+        @Override
+        public Object start(Set<Hint> hints) {
+            synchronized (this) {
+                started = true;
+                for (Hint hint : hints) {
+                    this.hints.add(hint.toString());
+                }
+            }
+            return (requestItems ? sample() : null);
+        }
+
+        @Override
+        public synchronized void stop(Object state, int items) {
+            requested = requested.add(sample().subtract((Sample) state));
+            this.items += items;
+        }
+
+        public synchronized String getHints() {
+            if (!started) {
+                return "unknown, no items have been requested";
+            }
+            return (hints.isEmpty() ? "-" : StringUtils.join(hints, ", "));
+        }
+    }
+
+    private static final class Sample {
+        private final long time;
+        private final long requests;
+        private final long cacheHits;
+        private final long allocated;
+
+        public Sample(long time, long requests, long cacheHits, long allocated) {
+            this.time = time;
+            this.requests = requests;
+            this.cacheHits = cacheHits;
+            this.allocated = allocated;
+        }
+
+        public Sample add(Sample other) {
+            return new Sample(time + other.time, requests + other.requests, cacheHits + other.cacheHits,
+                    allocated + other.allocated);
+        }
+
+        /**
+         * Values below zero are possible when items are processed in parallel and will be returned as zero
+         */
+        public Sample subtract(Sample other) {
+            return new Sample(Math.max(0, time - other.time), Math.max(0, requests - other.requests),
+                    Math.max(0, cacheHits - other.cacheHits), Math.max(0, allocated - other.allocated));
+        }
+    }
+
+    private static final class Allocation {
+        private static final com.sun.management.ThreadMXBean BEAN = getBean();
+
+        public static final boolean SUPPORTED = (BEAN != null);
+
+        private static com.sun.management.ThreadMXBean getBean() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+                    return sunBean;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns the number of bytes allocated by the current thread or 0 if not supported
+         */
+        public static long get() {
+            return (BEAN == null ? 0 : BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()));
+        }
+    }
+}
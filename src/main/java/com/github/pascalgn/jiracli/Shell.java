@@ -15,14 +15,23 @@
  */
 package com.github.pascalgn.jiracli;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.pascalgn.jiracli.command.Command;
 import com.github.pascalgn.jiracli.command.CommandFactory;
 import com.github.pascalgn.jiracli.command.CommandFactory.UsageException;
+import com.github.pascalgn.jiracli.command.QueryPlanner;
 import com.github.pascalgn.jiracli.context.Console;
 import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.model.Data;
@@ -30,6 +39,7 @@ import com.github.pascalgn.jiracli.model.None;
 import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.parser.CommandReference;
+import com.github.pascalgn.jiracli.util.BatchSupplier;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.InterruptedError;
 
@@ -40,6 +50,41 @@ class Shell {
 
     private static final List<String> EXIT = Arrays.asList("exit", "quit", "q");
 
+    /**
+     * If filters and sort commands following a search should be executed by the server, when possible
+     */
+    private static final boolean PLAN = Boolean.parseBoolean(System.getProperty("jiracli.pipeline.plan", "true"));
+
+    private static final String EXPLAIN = "explain";
+
+    /**
+     * Prefix to show the commands and hints of a pipeline without requesting any items, or to show the time and
+     * requests of every command
+     */
+    private static final Pattern MODE = Pattern.compile("(" + EXPLAIN + "|profile)\\s+(.*)", Pattern.DOTALL);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s");
+
+    private static final Pattern PARALLEL = Pattern.compile(
+            "(?:-P|--parallel)\\s+(\\S+)\\s+((?:-U|--unordered)\\s+)?(.*)", Pattern.DOTALL);
+
+    private enum Output {
+        /**
+         * Print the result
+         */
+        PRINT,
+
+        /**
+         * Only request the first item of the result
+         */
+        REQUEST,
+
+        /**
+         * Don't request any items
+         */
+        NONE;
+    }
+
     private final Context context;
     private final CommandFactory commandFactory;
 
@@ -102,16 +147,118 @@ class Shell {
     void execute(String line) {
         Console console = context.getConsole();
 
-        Data result;
+        String mode = null;
+        String commandLine = line;
+        Matcher modeMatcher = MODE.matcher(line);
+        if (modeMatcher.matches()) {
+            mode = modeMatcher.group(1);
+            commandLine = modeMatcher.group(2);
+        }
+
+        Pipeline pipeline;
+        Profiler profiler = null;
+        List<String> pushdowns = new ArrayList<>();
+        boolean skipped = false;
         try {
             Pipeline.Builder pipelineBuilder = new Pipeline.Builder();
 
-            List<CommandReference> commands = CommandReference.parseCommandReferences(line);
-            for (CommandReference ref : commands) {
-                pipelineBuilder.add(commandFactory.parseCommand(ref.getName(), ref.getArguments()));
+            Matcher matcher = PARALLEL.matcher(commandLine);
+            if (matcher.matches()) {
+                pipelineBuilder.concurrency(parseConcurrency(matcher.group(1)));
+                pipelineBuilder.ordered(matcher.group(2) == null);
+                commandLine = matcher.group(3);
+            }
+
+            List<Command> commands = new ArrayList<>();
+            Map<Command, String> names = new IdentityHashMap<>();
+            for (CommandReference ref : CommandReference.parseCommandReferences(commandLine)) {
+                Command command = commandFactory.parseCommand(ref.getName(), ref.getArguments());
+                commands.add(command);
+                names.put(command, toString(ref.getName(), ref.getArguments()));
             }
 
-            Pipeline pipeline = pipelineBuilder.build();
+            QueryPlanner planner = new QueryPlanner(context);
+            List<Command> planned = (PLAN ? planner.plan(commands) : commands);
+            for (int i = 1; i < commands.size(); i++) {
+                if (!planned.contains(commands.get(i))) {
+                    pushdowns.add(names.get(commands.get(i)));
+                }
+            }
+
+            if (mode != null) {
+                if (mode.equals(EXPLAIN)) {
+                    profiler = new Profiler(null, false);
+                } else {
+                    profiler = new Profiler(context.getWebService().getStatistics(), true);
+                }
+                // the values of a command can only be measured when its items are requested by the same thread:
+                pipelineBuilder.parallel(false);
+            }
+
+            int executed = 0;
+            for (Command command : planned) {
+                if (profiler == null) {
+                    pipelineBuilder.add(command);
+                    ++executed;
+                } else {
+                    String name = names.get(command);
+                    if (name == null) {
+                        name = toString("search", Collections.singletonList(planner.getJql()));
+                    }
+                    if (mode.equals(EXPLAIN) && (skipped || commandFactory.hasSideEffects(command))) {
+                        // commands with side effects, and all following commands, are never executed by explain:
+                        profiler.skip(name);
+                        skipped = true;
+                    } else {
+                        pipelineBuilder.add(profiler.add(command, name));
+                        ++executed;
+                    }
+                }
+            }
+
+            pipeline = (executed == 0 ? null : pipelineBuilder.build());
+        } catch (UsageException e) {
+            console.println(e.getLocalizedMessage());
+            return;
+        } catch (RuntimeException e) {
+            logException(console, e);
+            return;
+        }
+
+        try {
+            if (profiler == null) {
+                execute(console, pipeline, Output.PRINT);
+            } else if (mode.equals(EXPLAIN)) {
+                if (pipeline != null) {
+                    // the hints of skipped commands are unknown, so the result is only requested without them:
+                    execute(console, pipeline, skipped ? Output.NONE : Output.REQUEST);
+                }
+                for (String str : profiler.getHints()) {
+                    console.println(str);
+                }
+                for (String pushdown : pushdowns) {
+                    console.println("Pushed into search: " + pushdown);
+                }
+            } else {
+                execute(console, pipeline, Output.PRINT);
+                for (String str : profiler.getSummary()) {
+                    console.println(str);
+                }
+            }
+        } finally {
+            if (pipeline != null) {
+                pipeline.close();
+                if (profiler == null || !mode.equals(EXPLAIN)) {
+                    // results that have not been read completely will not be read anymore, release their connections:
+                    context.getWebService().closePages();
+                }
+            }
+        }
+    }
+
+    private void execute(Console console, Pipeline pipeline, Output output) {
+        Data result;
+        try {
             result = pipeline.execute(context, None.getInstance());
         } catch (UsageException e) {
             console.println(e.getLocalizedMessage());
@@ -129,12 +276,23 @@ class Shell {
         }
 
         try {
-            TextList textList = result.toTextList();
-            if (textList != null) {
-                Text text;
-                while ((text = textList.next(Hint.none())) != null) {
-                    console.println(text.getText());
+            if (output == Output.PRINT) {
+                TextList textList = result.toTextList();
+                if (textList != null) {
+                    Set<Hint> hints = pipeline.getHints();
+                    // a batch is only returned when it is full, so start with small batches to print the first
+                    // items as soon as they are available:
+                    int size = 1;
+                    List<Text> batch;
+                    while (!(batch = textList.nextBatch(size, hints)).isEmpty()) {
+                        for (Text text : batch) {
+                            console.println(text.getText());
+                        }
+                        size = Math.min(size * 2, BatchSupplier.DEFAULT_SIZE);
+                    }
                 }
+            } else if (output == Output.REQUEST) {
+                result.toIterator(pipeline.getHints()).hasNext();
             }
         } catch (InterruptedError e) {
             console.println("interrupted");
@@ -144,6 +302,32 @@ class Shell {
         }
     }
 
+    private static String toString(String name, List<String> arguments) {
+        StringBuilder str = new StringBuilder(name);
+        for (String argument : arguments) {
+            str.append(" ");
+            if (argument.isEmpty() || WHITESPACE.matcher(argument).find()) {
+                str.append("'").append(argument.replace("'", "\\'")).append("'");
+            } else {
+                str.append(argument);
+            }
+        }
+        return str.toString();
+    }
+
+    private static int parseConcurrency(String str) {
+        int concurrency;
+        try {
+            concurrency = Integer.parseInt(str);
+        } catch (NumberFormatException e) {
+            concurrency = 0;
+        }
+        if (concurrency < 1) {
+            throw new UsageException("Invalid number of parallel tasks: " + str);
+        }
+        return concurrency;
+    }
+
     private static void logException(Console console, Exception e) {
         LOGGER.debug("Error", e);
         if (e.getLocalizedMessage() == null) {
@@ -25,7 +25,7 @@ import com.github.pascalgn.jiracli.model.IssueList;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
 
-@CommandDescription(names = "comment", description = "Add a new comment to the given issues")
+@CommandDescription(names = "comment", description = "Add a new comment to the given issues", sideEffects = true)
 class AddComment implements Command {
     @Argument(parameters = Parameters.ONE, variable = "<text>", description = "the text of the new comment")
     private String text;
@@ -37,7 +37,7 @@ class AddComment implements Command {
         }
 
         IssueList issueList = input.toIssueListOrFail();
-        return new IssueList(issueList.convertingSupplier(new Function<Issue, Issue>() {
+        return new IssueList(issueList.parallelConvertingSupplier(Hint.none(), new Function<Issue, Issue>() {
             @Override
             public Issue apply(Issue issue, Set<Hint> hints) {
                 context.getWebService().addComment(issue, text);
@@ -34,11 +34,12 @@ class Attachments implements Command {
     public AttachmentList execute(final Context context, Data input) {
         IssueList issueList = input.toIssueListOrFail();
         Set<Hint> hints = IssueHint.fields("attachment");
-        return new AttachmentList(issueList.loadingSupplier(hints, new Function<Issue, Collection<Attachment>>() {
+        Function<Issue, Collection<Attachment>> function = new Function<Issue, Collection<Attachment>>() {
             @Override
             public Collection<Attachment> apply(Issue issue, Set<Hint> hints) {
                 return context.getWebService().getAttachments(issue);
             }
-        }));
+        };
+        return new AttachmentList(issueList.parallelLoadingSupplier(hints, function));
     }
 }
@@ -20,7 +20,8 @@ import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.model.User;
 
-@CommandDescription(names = { "authenticate", "auth" }, description = "Trigger an authentication request")
+@CommandDescription(names = { "authenticate", "auth" }, description = "Trigger an authentication request",
+        sideEffects = true)
 class Authenticate implements Command {
     @Override
     public Data execute(Context context, Data input) {
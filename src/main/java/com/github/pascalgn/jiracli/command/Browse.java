@@ -30,7 +30,8 @@ import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
 
-@CommandDescription(names = "browse", description = "Open the given Jira issues in the system's default browser")
+@CommandDescription(names = "browse", description = "Open the given Jira issues in the system's default browser",
+        sideEffects = true)
 class Browse implements Command {
     @Argument(names = "-n", description = "only print the URLs, don't open a browser")
     private boolean dryRun = false;
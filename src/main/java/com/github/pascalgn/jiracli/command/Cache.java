@@ -15,20 +15,48 @@
  */
 package com.github.pascalgn.jiracli.command;
 
+import com.github.pascalgn.jiracli.command.Argument.Parameters;
 import com.github.pascalgn.jiracli.context.Context;
+import com.github.pascalgn.jiracli.context.WebService;
 import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.None;
 
-@CommandDescription(names = "cache", description = "Clear the cached values")
+@CommandDescription(names = "cache", description = "Show, inspect or clear the cached values", sideEffects = true)
 class Cache implements Command {
-    @Argument(names = { "-c", "--clear" }, description = "clear the cache")
+    @Argument(names = { "-c", "--clear" }, description = "clear the cache, or only the matching entries")
     private boolean clear = false;
 
+    @Argument(names = { "-t", "--category" }, parameters = Parameters.ONE, variable = "<category>",
+            description = "only clear entries of the given category")
+    private String category;
+
+    @Argument(names = { "-k", "--key" }, parameters = Parameters.ONE, variable = "<regex>",
+            description = "only clear entries with matching keys")
+    private String key;
+
+    @Argument(names = { "-l", "--largest" }, parameters = Parameters.ONE, variable = "<count>",
+            description = "show the given number of largest entries")
+    private int largest;
+
     @Override
     public Data execute(final Context context, Data input) {
+        WebService.Cache cache = context.getWebService().getCache();
         if (clear) {
-            context.getWebService().getCache().clear();
-            context.getConsole().println("Cache cleared.");
+            if (category == null && key == null) {
+                cache.clear();
+                context.getConsole().println("Cache cleared.");
+            } else {
+                int evicted = cache.evict(category, key);
+                context.getConsole().println("Removed " + evicted + " entries.");
+            }
+        } else if (largest > 0) {
+            for (String line : cache.getLargestEntries(largest)) {
+                context.getConsole().println(line);
+            }
+        } else {
+            for (String line : cache.getSummary()) {
+                context.getConsole().println(line);
+            }
         }
         return None.getInstance();
     }
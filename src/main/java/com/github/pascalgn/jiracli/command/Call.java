@@ -24,7 +24,7 @@ import com.github.pascalgn.jiracli.context.WebService.Method;
 import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Text;
 
-@CommandDescription(names = "call", description = "Call the given URL")
+@CommandDescription(names = "call", description = "Call the given URL", sideEffects = true)
 class Call implements Command {
     @Argument(names = { "-m", "--method" }, parameters = Parameters.ONE, variable = "<method>",
             description = "The method, one of GET, POST, PUT, DELETE")
@@ -57,7 +57,7 @@ class Changelog implements Command {
     public Data execute(final Context context, Data input) {
         final DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd, HH:mm:ss");
         Set<Hint> hints = Collections.<Hint> singleton(IssueHint.changelog());
-        return new TextList(input.toIssueListOrFail().loadingSupplier(hints, new Function<Issue, Collection<Text>>() {
+        Function<Issue, Collection<Text>> function = new Function<Issue, Collection<Text>>() {
             @Override
             public Collection<Text> apply(Issue issue, Set<Hint> hints) {
                 List<Text> texts = new ArrayList<>();
@@ -86,7 +86,8 @@ class Changelog implements Command {
 
                 return texts;
             }
-        }));
+        };
+        return new TextList(input.toIssueListOrFail().parallelLoadingSupplier(hints, function));
     }
 
     private static String toInfoString(Issue issue, DateFormat dateFormat) {
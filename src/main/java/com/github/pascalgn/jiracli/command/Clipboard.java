@@ -31,7 +31,7 @@ import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.None;
 import com.github.pascalgn.jiracli.model.Text;
 
-@CommandDescription(names = "clipboard", description = "Copy text from/to clipboard")
+@CommandDescription(names = "clipboard", description = "Copy text from/to clipboard", sideEffects = true)
 class Clipboard implements Command {
     private static final Logger LOGGER = LoggerFactory.getLogger(Clipboard.class);
 
@@ -26,4 +26,10 @@ import java.lang.annotation.Target;
     String[] names();
 
     String description();
+
+    /**
+     * If the command changes issues on the server or has effects outside of the pipeline, like opening an editor or
+     * clearing the cache
+     */
+    boolean sideEffects() default false;
 }
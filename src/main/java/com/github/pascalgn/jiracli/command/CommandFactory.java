@@ -90,6 +90,15 @@ public class CommandFactory {
         return names;
     }
 
+    /**
+     * Returns <code>true</code> if the given command changes issues on the server or has effects outside of the
+     * pipeline, so its items should only be processed when they are actually requested
+     */
+    public boolean hasSideEffects(Command command) {
+        CommandDescription commandDescription = command.getClass().getAnnotation(CommandDescription.class);
+        return (commandDescription != null && commandDescription.sideEffects());
+    }
+
     public Command parseCommand(String commandName, List<String> args) {
         CommandDescriptor commandDescriptor = getCommandDescriptor(commandName);
         if (commandDescriptor == null) {
@@ -113,16 +113,33 @@ class CommandUtils {
         return ISSUE_KEY_PATTERN;
     }
 
+    /**
+     * Returns the given value as a quoted JQL string
+     */
+    public static String toJqlString(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
     /**
      * Returns a new {@link Request} instance based on the given hints
      */
     public static Request getRequest(Set<Hint> hints) {
+        return getRequest(hints, 0);
+    }
+
+    /**
+     * Returns a new {@link Request} instance based on the given hints
+     *
+     * @param pageSize The number of results per request, 0 to choose automatically
+     */
+    public static Request getRequest(Set<Hint> hints, int pageSize) {
         boolean allFields = hints.contains(IssueHint.allFields());
         Collection<String> fields = IssueHint.getFields(hints);
         Collection<String> expand = new HashSet<>();
         if (hints.contains(IssueHint.editableFields())) {
             expand.add("editmeta");
         }
-        return new DefaultRequest(allFields, fields, expand);
+        int limit = IssueHint.getLimit(hints);
+        return new DefaultRequest(allFields, fields, expand, pageSize, limit);
     }
 }
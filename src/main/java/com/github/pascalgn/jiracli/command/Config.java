@@ -24,7 +24,8 @@ import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.model.TextList;
 
-@CommandDescription(names = "config", description = "Change configuration values or display the current configuration")
+@CommandDescription(names = "config", description = "Change configuration values or display the current configuration",
+        sideEffects = true)
 class Config implements Command {
     @Argument(names = "-b", parameters = Parameters.ONE, variable = "<url>",
             description = "the base URL of the Jira service")
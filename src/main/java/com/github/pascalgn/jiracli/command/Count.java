@@ -16,7 +16,6 @@
 package com.github.pascalgn.jiracli.command;
 
 import java.util.Collections;
-import java.util.Iterator;
 
 import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.model.Data;
@@ -28,12 +27,7 @@ import com.github.pascalgn.jiracli.util.Hint;
 class Count implements Command {
     @Override
     public Text execute(final Context context, Data input) {
-        int count = 0;
-        Iterator<Data> it = input.toIterator(Collections.<Hint> singleton(IssueHint.count()));
-        while (it.hasNext()) {
-            it.next();
-            ++count;
-        }
+        int count = input.count(Collections.<Hint> singleton(IssueHint.count()));
         return new Text(Integer.toString(count));
     }
 }
@@ -44,7 +44,7 @@ import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.IOUtils;
 import com.github.pascalgn.jiracli.util.LineReader;
 
-@CommandDescription(names = "create", description = "Create new issues")
+@CommandDescription(names = "create", description = "Create new issues", sideEffects = true)
 class Create implements Command {
     @Argument(names = "-c", parameters = Parameters.ONE, variable = "<count>",
             description = "Number of issues to create")
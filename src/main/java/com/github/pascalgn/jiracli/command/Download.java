@@ -37,7 +37,7 @@ import com.github.pascalgn.jiracli.util.Consumer;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.IOUtils;
 
-@CommandDescription(names = { "download", "dl" }, description = "Download the given attachments")
+@CommandDescription(names = { "download", "dl" }, description = "Download the given attachments", sideEffects = true)
 class Download implements Command {
     private static final Logger LOGGER = LoggerFactory.getLogger(Download.class);
 
@@ -38,7 +38,7 @@ import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.IOUtils;
 import com.github.pascalgn.jiracli.util.LineReader;
 
-@CommandDescription(names = "edit", description = "Edit the given issues in a text editor")
+@CommandDescription(names = "edit", description = "Edit the given issues in a text editor", sideEffects = true)
 class Edit implements Command {
     @Argument(names = { "-p", "--print" }, description = "print the text content instead of opening the editor")
     private boolean print;
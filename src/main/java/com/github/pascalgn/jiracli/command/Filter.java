@@ -15,6 +15,7 @@
  */
 package com.github.pascalgn.jiracli.command;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -29,7 +30,8 @@ import com.github.pascalgn.jiracli.model.Schema;
 import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.util.Hint;
-import com.github.pascalgn.jiracli.util.Supplier;
+import com.github.pascalgn.jiracli.util.StringUtils;
+import com.github.pascalgn.jiracli.util.Function;
 
 @CommandDescription(names = { "filter", "grep" }, description = "Filter issues by the given field value")
 class Filter implements Command {
@@ -91,81 +93,89 @@ class Filter implements Command {
         final IssueList issueList = input.toIssueList();
         if (issueList == null) {
             final TextList textList = input.toTextListOrFail();
-            return new TextList(new Supplier<Text>() {
+            return new TextList(textList.filteringSupplier(Hint.none(), new Function<Text, Boolean>() {
                 @Override
-                public Text get(Set<Hint> hints) {
-                    Text text;
-                    while ((text = textList.next(hints)) != null) {
-                        boolean result = context.getJavaScriptEngine().test(js, text);
-                        if (result ^ inverse) {
-                            return text;
-                        }
-                    }
-                    return null;
+                public Boolean apply(Text text, Set<Hint> hints) {
+                    boolean result = context.getJavaScriptEngine().test(js, text);
+                    return result ^ inverse;
                 }
-            });
+            }));
         } else {
             List<String> fields = CommandUtils.findJavaScriptFields(js);
-            final Set<Hint> hints = IssueHint.fields(fields);
-            return new IssueList(new Supplier<Issue>() {
+            Set<Hint> hints = IssueHint.fields(fields);
+            return new IssueList(issueList.filteringSupplier(hints, new Function<Issue, Boolean>() {
                 @Override
-                public Issue get(Set<Hint> localHints) {
-                    Set<Hint> combined = Hint.combine(hints, localHints);
-                    Issue issue;
-                    while ((issue = issueList.next(combined)) != null) {
-                        boolean result = context.getJavaScriptEngine().test(js, issue);
-                        if (result ^ inverse) {
-                            return issue;
-                        }
-                    }
-                    return null;
+                public Boolean apply(Issue issue, Set<Hint> hints) {
+                    boolean result = context.getJavaScriptEngine().test(js, issue);
+                    return result ^ inverse;
                 }
-            });
+            }));
         }
     }
 
     private Data filterValue(final Context context, final Data input) {
-        int flags = 0;
-        if (!regexp) {
-            flags |= Pattern.LITERAL;
-        }
-        if (ignoreCase) {
-            flags |= Pattern.CASE_INSENSITIVE;
-        }
-        final Pattern pattern = Pattern.compile(search, flags);
+        final Pattern pattern = getPattern();
         if (field == null) {
             final TextList textList = input.toTextListOrFail();
-            return new TextList(new Supplier<Text>() {
+            return new TextList(textList.filteringSupplier(Hint.none(), new Function<Text, Boolean>() {
                 @Override
-                public Text get(Set<Hint> hints) {
-                    Text text;
-                    while ((text = textList.next(hints)) != null) {
-                        String str = text.getText();
-                        boolean result = pattern.matcher(str).find();
-                        if (result ^ inverse) {
-                            return text;
-                        }
-                    }
-                    return null;
+                public Boolean apply(Text text, Set<Hint> hints) {
+                    boolean result = pattern.matcher(text.getText()).find();
+                    return result ^ inverse;
                 }
-            });
+            }));
         } else {
             final IssueList issueList = input.toIssueListOrFail();
-            return new IssueList(new Supplier<Issue>() {
+            Set<Hint> hints = IssueHint.fields(field);
+            return new IssueList(issueList.filteringSupplier(hints, new Function<Issue, Boolean>() {
                 @Override
-                public Issue get(Set<Hint> hints) {
-                    Set<Hint> combined = Hint.combine(hints, IssueHint.fields(field));
-                    Issue issue;
-                    while ((issue = issueList.next(combined)) != null) {
-                        boolean result = matches(context, issue, pattern);
-                        if (result ^ inverse) {
-                            return issue;
-                        }
-                    }
-                    return null;
+                public Boolean apply(Issue issue, Set<Hint> hints) {
+                    boolean result = matches(context, issue, pattern);
+                    return result ^ inverse;
                 }
-            });
+            }));
+        }
+    }
+
+    private Pattern getPattern() {
+        int flags = 0;
+        if (!regexp) {
+            flags |= Pattern.LITERAL;
+        }
+        if (ignoreCase) {
+            flags |= Pattern.CASE_INSENSITIVE;
+        }
+        return Pattern.compile(search, flags);
+    }
+
+    /**
+     * Returns a JQL clause which matches exactly the issues returned by this filter, or <code>null</code> if the
+     * filter cannot be expressed in JQL. This is only possible for fields with a fixed set of values.
+     */
+    String toJql(Context context) {
+        if (javaScript || field == null) {
+            return null;
+        }
+        List<String> values = context.getWebService().getFieldValues(field);
+        if (values == null) {
+            return null;
+        }
+        Pattern pattern = getPattern();
+        List<String> matching = new ArrayList<>();
+        for (String value : values) {
+            if (pattern.matcher(value).find()) {
+                matching.add(CommandUtils.toJqlString(value));
+            }
+        }
+        if (matching.isEmpty()) {
+            // possibly a value which has been added recently, better check all issues
+            return null;
         }
+        // issues without a value are compared using the empty string, but are never matched by IN or NOT IN:
+        boolean empty = pattern.matcher("").find() ^ inverse;
+        String operator = (inverse ? " NOT IN (" : " IN (");
+        String clause = field + operator + StringUtils.join(matching, ", ") + ")";
+        return (empty ? "(" + clause + " OR " + field + " IS EMPTY)" : clause);
     }
 
     private boolean matches(Context context, Issue issue, Pattern pattern) {
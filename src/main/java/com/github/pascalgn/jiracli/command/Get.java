@@ -32,9 +32,9 @@ import com.github.pascalgn.jiracli.model.Schema;
 import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.util.Function;
+import com.github.pascalgn.jiracli.util.Functions;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.ReflectionUtils;
-import com.github.pascalgn.jiracli.util.Supplier;
 
 @CommandDescription(names = "get", description = "Return the field value for the given field")
 class Get implements Command {
@@ -50,29 +50,24 @@ class Get implements Command {
 
         IssueList issueList = input.toIssueList();
         if (issueList == null) {
-            final Iterator<Data> iterator = input.toIterator(Hint.none());
-            return new TextList(new Supplier<Text>() {
+            Iterator<Data> iterator = input.toIterator(Hint.none());
+            return new TextList(Functions.convert(iterator, new Function<Data, Text>() {
                 @Override
-                public Text get(Set<Hint> hints) {
-                    if (iterator.hasNext()) {
-                        Data data = iterator.next();
-                        StringBuilder str = new StringBuilder();
-                        boolean first = true;
-                        for (String field : fields) {
-                            if (first) {
-                                first = false;
-                            } else {
-                                str.append("\t");
-                            }
-                            Object value = ReflectionUtils.getValue(data, field);
-                            str.append(Objects.toString(value, ""));
+                public Text apply(Data data, Set<Hint> hints) {
+                    StringBuilder str = new StringBuilder();
+                    boolean first = true;
+                    for (String field : fields) {
+                        if (first) {
+                            first = false;
+                        } else {
+                            str.append("\t");
                         }
-                        return new Text(str.toString());
-                    } else {
-                        return null;
+                        Object value = ReflectionUtils.getValue(data, field);
+                        str.append(Objects.toString(value, ""));
                     }
+                    return new Text(str.toString());
                 }
-            });
+            }));
         } else {
             final Schema schema = context.getWebService().getSchema();
             return new TextList(issueList.convertingSupplier(IssueHint.fields(fields), new Function<Issue, Text>() {
@@ -21,6 +21,7 @@ import com.github.pascalgn.jiracli.command.Argument.Parameters;
 import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Filter;
+import com.github.pascalgn.jiracli.model.IssueHint;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.Supplier;
 
@@ -29,6 +30,14 @@ class Head implements Command {
     @Argument(names = "-n", parameters = Parameters.ONE, variable = "<count>", description = "Number of items")
     private int count = 10;
 
+    public Head() {
+        // default constructor
+    }
+
+    Head(int count) {
+        this.count = count;
+    }
+
     @Override
     public Data execute(Context context, Data input) {
         final int[] index = new int[1];
@@ -36,8 +45,10 @@ class Head implements Command {
             @Override
             public Data get(Supplier<Data> supplier, Set<Hint> hints) {
                 if (index[0] < count) {
+                    // let the upstream suppliers know how many items will be needed:
+                    Set<Hint> limit = Hint.combine(hints, IssueHint.limit(count - index[0]));
                     index[0]++;
-                    return supplier.get(hints);
+                    return supplier.get(limit);
                 } else {
                     return null;
                 }
@@ -33,7 +33,8 @@ import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.IOUtils;
 
-@CommandDescription(names = { "javascript", "js" }, description = "Execute JavaScript code for the given issues")
+@CommandDescription(names = { "javascript", "js" }, description = "Execute JavaScript code for the given issues",
+        sideEffects = true)
 class JavaScript implements Command {
     @Argument(names = "--file", variable = "<file>", parameters = Parameters.ONE,
             description = "the script file to read javascript from")
@@ -27,7 +27,7 @@ import com.github.pascalgn.jiracli.model.IssueList;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
 
-@CommandDescription(names = "link", description = "Link the issues to the given issue")
+@CommandDescription(names = "link", description = "Link the issues to the given issue", sideEffects = true)
 class Link implements Command {
     @Argument(order = 1, parameters = Parameters.ONE, variable = "<issue>",
             description = "the issue to link the other issues to")
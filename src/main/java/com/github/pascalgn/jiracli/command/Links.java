@@ -15,8 +15,7 @@
  */
 package com.github.pascalgn.jiracli.command;
 
-import java.util.Iterator;
-import java.util.List;
+import java.util.Collection;
 import java.util.Set;
 
 import com.github.pascalgn.jiracli.context.Context;
@@ -24,35 +23,22 @@ import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Issue;
 import com.github.pascalgn.jiracli.model.IssueHint;
 import com.github.pascalgn.jiracli.model.IssueList;
+import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
-import com.github.pascalgn.jiracli.util.Supplier;
 
 @CommandDescription(names = { "links", "linked" }, description = "Show all issues linked with the given issues")
 class Links implements Command {
     @Override
     public Data execute(final Context context, Data input) {
-        final IssueList issueList = input.toIssueListOrFail();
-        final Set<Hint> issuelinks = IssueHint.fields("issuelinks");
-
-        // Create a custom supplier, because the 'issuelinks' hint should not be passed to the children items
-        Supplier<Issue> supplier = new Supplier<Issue>() {
-            private Iterator<Issue> iterator;
+        IssueList issueList = input.toIssueListOrFail();
+        Set<Hint> hints = IssueHint.fields("issuelinks");
 
+        // The function only receives the hints of the request, the 'issuelinks' hint is not passed to the children
+        return new IssueList(issueList.parallelLoadingSupplier(hints, new Function<Issue, Collection<Issue>>() {
             @Override
-            public Issue get(Set<Hint> hints) {
-                while (iterator == null || !iterator.hasNext()) {
-                    Issue next = issueList.next(issuelinks);
-                    if (next == null) {
-                        break;
-                    } else {
-                        List<Issue> links = context.getWebService().getLinks(next, CommandUtils.getRequest(hints));
-                        iterator = links.iterator();
-                    }
-                }
-                return (iterator.hasNext() ? iterator.next() : null);
+            public Collection<Issue> apply(Issue issue, Set<Hint> hints) {
+                return context.getWebService().getLinks(issue, CommandUtils.getRequest(hints));
             }
-        };
-
-        return new IssueList(supplier);
+        }));
     }
 }
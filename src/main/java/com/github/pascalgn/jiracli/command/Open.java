@@ -28,7 +28,7 @@ import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.util.IOUtils;
 import com.github.pascalgn.jiracli.util.JsonUtils;
 
-@CommandDescription(names = "open", description = "Open the text content in an editor")
+@CommandDescription(names = "open", description = "Open the text content in an editor", sideEffects = true)
 class Open implements Command {
     @Argument(names = { "-s", "--suffix" }, parameters = Parameters.ONE, variable = "<suffix>",
             description = "the file suffix to use")
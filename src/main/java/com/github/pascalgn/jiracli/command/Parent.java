@@ -33,7 +33,7 @@ class Parent implements Command {
     public IssueList execute(final Context context, Data input) {
         IssueList issueList = input.toIssueListOrFail();
         Set<Hint> hints = IssueHint.fields("parent");
-        return new IssueList(issueList.loadingSupplier(hints, new Function<Issue, Collection<Issue>>() {
+        return new IssueList(issueList.parallelLoadingSupplier(hints, new Function<Issue, Collection<Issue>>() {
             @Override
             public Collection<Issue> apply(Issue issue, Set<Hint> hints) {
                 Issue parent = context.getWebService().getParent(issue, CommandUtils.getRequest(hints));
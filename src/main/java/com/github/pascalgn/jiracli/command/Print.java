@@ -32,8 +32,8 @@ import com.github.pascalgn.jiracli.model.Schema;
 import com.github.pascalgn.jiracli.model.Text;
 import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.util.Function;
+import com.github.pascalgn.jiracli.util.Functions;
 import com.github.pascalgn.jiracli.util.Hint;
-import com.github.pascalgn.jiracli.util.Supplier;
 
 @CommandDescription(names = { "print", "p" }, description = "Print the given JIRA issues using the given format")
 class Print implements Command {
@@ -59,24 +59,19 @@ class Print implements Command {
         IssueList issueList = input.toIssueList();
         final Schema schema = context.getWebService().getSchema();
         if (issueList == null) {
-            final Iterator<Data> iterator = input.toIterator(hints);
-            return new TextList(new Supplier<Text>() {
+            Iterator<Data> iterator = input.toIterator(hints);
+            return new TextList(Functions.convert(iterator, new Function<Data, Text>() {
                 @Override
-                public Text get(Set<Hint> hints) {
-                    if (iterator.hasNext()) {
-                        Data data = iterator.next();
-                        String str;
-                        try {
-                            str = new FormatHelper(schema).format(data, pattern);
-                        } catch (RuntimeException e) {
-                            str = "[Error: " + data + ": " + e.getLocalizedMessage() + "]";
-                        }
-                        return new Text(str);
-                    } else {
-                        return null;
+                public Text apply(Data data, Set<Hint> hints) {
+                    String str;
+                    try {
+                        str = new FormatHelper(schema).format(data, pattern);
+                    } catch (RuntimeException e) {
+                        str = "[Error: " + data + ": " + e.getLocalizedMessage() + "]";
                     }
+                    return new Text(str);
                 }
-            });
+            }));
         } else {
             return new TextList(issueList.convertingSupplier(hints, new Function<Issue, Text>() {
                 @Override
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.command;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.pascalgn.jiracli.context.Context;
+import com.github.pascalgn.jiracli.util.StringUtils;
+
+/**
+ * Rewrites commands following a search, so that the filtering and sorting is done by the server, if the result will
+ * be exactly the same. Limits and the needed fields are already passed to the search by hints.
+ */
+public class QueryPlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryPlanner.class);
+
+    private static final Pattern ORDER_BY = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+
+    private final Context context;
+
+    private String jql;
+
+    public QueryPlanner(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Returns the JQL of the search which has been rewritten by the last call of {@link #plan(List)}, or
+     * <code>null</code> if the commands have not been rewritten
+     */
+    public String getJql() {
+        return jql;
+    }
+
+    /**
+     * Returns the given commands, or rewritten commands which will return the same result
+     */
+    public List<Command> plan(List<Command> commands) {
+        jql = null;
+        if (commands.isEmpty() || !(commands.get(0) instanceof Search)) {
+            return commands;
+        }
+
+        List<String> clauses = new ArrayList<>();
+        String orderBy = null;
+
+        // filters don't change the order and can be moved before or after other filters and sort commands:
+        List<Command> remaining = new ArrayList<>();
+        int index = 1;
+        while (index < commands.size()) {
+            Command command = commands.get(index);
+            if (command instanceof Filter) {
+                String clause = toJql((Filter) command);
+                if (clause == null) {
+                    remaining.add(command);
+                } else {
+                    clauses.add(clause);
+                }
+            } else if (command instanceof Sort) {
+                String order = ((Sort) command).toOrderBy();
+                if (order == null) {
+                    break;
+                }
+                orderBy = order;
+            } else {
+                break;
+            }
+            ++index;
+        }
+
+        if (clauses.isEmpty() && orderBy == null) {
+            return commands;
+        }
+
+        Search search = (Search) commands.get(0);
+        jql = toJql(search.getJql(), clauses, orderBy);
+        LOGGER.debug("Rewritten search: {} -> {}", search.getJql(), jql);
+
+        List<Command> result = new ArrayList<>();
+        result.add(search.withJql(jql));
+        result.addAll(remaining);
+        result.addAll(commands.subList(index, commands.size()));
+        return result;
+    }
+
+    private String toJql(Filter filter) {
+        try {
+            return filter.toJql(context);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not convert filter to JQL", e);
+            return null;
+        }
+    }
+
+    static String toJql(String jql, List<String> clauses, String orderBy) {
+        String where = jql.trim();
+        String order = null;
+        // ignore ORDER BY inside of string literals, for example summary ~ "order by":
+        Matcher matcher = ORDER_BY.matcher(StringUtils.maskQuoted(where));
+        if (matcher.find()) {
+            order = where.substring(matcher.end()).trim();
+            where = where.substring(0, matcher.start()).trim();
+        }
+        if (orderBy != null) {
+            order = orderBy;
+        }
+
+        StringBuilder str = new StringBuilder();
+        if (!clauses.isEmpty()) {
+            if (!where.isEmpty()) {
+                str.append("(").append(where).append(") AND ");
+            }
+            str.append(StringUtils.join(clauses, " AND "));
+        } else {
+            str.append(where);
+        }
+        if (order != null) {
+            if (str.length() > 0) {
+                str.append(" ");
+            }
+            str.append("ORDER BY ").append(order);
+        }
+        return str.toString();
+    }
+}
@@ -23,7 +23,7 @@ import com.github.pascalgn.jiracli.model.Issue;
 import com.github.pascalgn.jiracli.model.IssueList;
 import com.github.pascalgn.jiracli.util.Hint;
 
-@CommandDescription(names = "rank", description = "Set the rank of the issues to the given order")
+@CommandDescription(names = "rank", description = "Set the rank of the issues to the given order", sideEffects = true)
 class Rank implements Command {
     @Override
     public Data execute(Context context, Data input) {
@@ -15,6 +15,8 @@
  */
 package com.github.pascalgn.jiracli.command;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -24,12 +26,22 @@ import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.context.WebService.Request;
 import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.model.IssueHint;
 import com.github.pascalgn.jiracli.model.IssueList;
+import com.github.pascalgn.jiracli.util.BatchSupplier;
+import com.github.pascalgn.jiracli.util.CountableSupplier;
 import com.github.pascalgn.jiracli.util.Hint;
-import com.github.pascalgn.jiracli.util.Supplier;
 
 @CommandDescription(names = { "search", "s" }, description = "Search for issues via JQL")
 class Search implements Command {
+    @Argument(names = { "-p", "--page-size" }, parameters = Parameters.ONE, variable = "<size>",
+            description = "number of issues per request")
+    private int pageSize;
+
+    @Argument(names = { "-u", "--sync" },
+            description = "only load the issues updated since the last search for the same JQL")
+    private boolean sync = false;
+
     @Argument(variable = "<jql>", description = "the JQL to search", parameters = Parameters.ONE)
     private String jql;
 
@@ -41,12 +53,26 @@ class Search implements Command {
         this.jql = jql;
     }
 
+    String getJql() {
+        return jql;
+    }
+
+    /**
+     * Returns a copy of this command which uses the given JQL
+     */
+    Search withJql(String jql) {
+        Search search = new Search(jql);
+        search.pageSize = pageSize;
+        search.sync = sync;
+        return search;
+    }
+
     @Override
     public IssueList execute(Context context, Data input) {
         return new IssueList(new IssueSupplier(context));
     }
 
-    private class IssueSupplier implements Supplier<Issue> {
+    private class IssueSupplier implements CountableSupplier<Issue>, BatchSupplier<Issue> {
         private Context context;
         private Iterator<Issue> issues;
 
@@ -56,12 +82,37 @@ class Search implements Command {
 
         @Override
         public synchronized Issue get(Set<Hint> hints) {
+            init(hints);
+            return (issues.hasNext() ? issues.next() : null);
+        }
+
+        @Override
+        public synchronized List<Issue> getBatch(int size, Set<Hint> hints) {
+            init(hints);
+            List<Issue> batch = new ArrayList<>();
+            while (batch.size() < size && issues.hasNext()) {
+                batch.add(issues.next());
+            }
+            return batch;
+        }
+
+        private void init(Set<Hint> hints) {
             if (issues == null) {
-                Request request = CommandUtils.getRequest(hints);
-                List<Issue> list = context.getWebService().searchIssues(jql, request);
+                Request request = CommandUtils.getRequest(hints, pageSize);
+                List<Issue> list = (sync ? context.getWebService().syncIssues(jql, request)
+                        : context.getWebService().searchIssues(jql, request));
                 issues = list.iterator();
             }
-            return (issues.hasNext() ? issues.next() : null);
+        }
+
+        @Override
+        public synchronized int count(Set<Hint> hints) {
+            if (issues != null || !hints.contains(IssueHint.count())) {
+                return -1;
+            }
+            int count = context.getWebService().countIssues(jql);
+            issues = Collections.<Issue> emptyList().iterator();
+            return count;
         }
     }
 }
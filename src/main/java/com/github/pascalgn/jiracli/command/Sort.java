@@ -97,6 +97,18 @@ class Sort implements Command {
         throw new IllegalArgumentException("Invalid input: " + input);
     }
 
+    /**
+     * Returns the JQL <code>ORDER BY</code> fields which result in exactly the same order as this command, or
+     * <code>null</code> if the order cannot be expressed in JQL
+     */
+    String toOrderBy() {
+        if (numeric || unique || edit || reverse) {
+            return null;
+        }
+        // JIRA compares keys like IssueKeyComparator, by project key and then by number:
+        return (KEY.equals(CommandUtils.getFields(fields)) ? "key ASC" : null);
+    }
+
     private IssueList sort(final Context context, final IssueList issueList) {
         return new IssueList(new Supplier<Issue>() {
             private Iterator<Issue> iterator;
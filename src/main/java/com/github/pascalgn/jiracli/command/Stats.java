@@ -0,0 +1,54 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.pascalgn.jiracli.context.Context;
+import com.github.pascalgn.jiracli.context.WebService.Statistics;
+import com.github.pascalgn.jiracli.model.Data;
+import com.github.pascalgn.jiracli.model.None;
+import com.github.pascalgn.jiracli.model.Text;
+import com.github.pascalgn.jiracli.model.TextList;
+
+@CommandDescription(names = "stats", description = "Show statistics of the requests sent to the server",
+        sideEffects = true)
+class Stats implements Command {
+    @Argument(names = { "-j", "--json" }, description = "return all values as JSON")
+    private boolean json = false;
+
+    @Argument(names = { "-c", "--clear" }, description = "clear the statistics")
+    private boolean clear = false;
+
+    @Override
+    public Data execute(Context context, Data input) {
+        Statistics statistics = context.getWebService().getStatistics();
+        if (clear) {
+            statistics.clear();
+            context.getConsole().println("Statistics cleared.");
+            return None.getInstance();
+        } else if (json) {
+            return new Text(statistics.toJson());
+        } else {
+            List<Text> lines = new ArrayList<>();
+            for (String line : statistics.getSummary()) {
+                lines.add(new Text(line));
+            }
+            return new TextList(lines.iterator());
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.context.DefaultRequest;
 import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.model.IssueHint;
 import com.github.pascalgn.jiracli.model.IssueList;
 import com.github.pascalgn.jiracli.model.Status;
 import com.github.pascalgn.jiracli.model.Text;
@@ -38,7 +39,7 @@ import com.github.pascalgn.jiracli.model.Workflow;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
 
-@CommandDescription(names = "transition", description = "Change the status of the given issues")
+@CommandDescription(names = "transition", description = "Change the status of the given issues", sideEffects = true)
 class Transitions implements Command {
     private static final Logger LOGGER = LoggerFactory.getLogger(Transitions.class);
 
@@ -51,8 +52,10 @@ class Transitions implements Command {
     @Override
     public Data execute(final Context context, Data input) {
         IssueList issueList = input.toIssueListOrFail();
+        // the workflow depends on the project and the issue type:
+        Set<Hint> hints = IssueHint.fields("project", "issuetype");
         if (status == null) {
-            return new TextList(issueList.loadingSupplier(Hint.none(), new Function<Issue, Collection<Text>>() {
+            return new TextList(issueList.parallelLoadingSupplier(hints, new Function<Issue, Collection<Text>>() {
                 @Override
                 public Collection<Text> apply(Issue issue, Set<Hint> hints) {
                     return listAllTransitions(context, issue);
@@ -60,14 +63,14 @@ class Transitions implements Command {
             }));
         } else {
             if (dry) {
-                return new TextList(issueList.convertingSupplier(new Function<Issue, Text>() {
+                return new TextList(issueList.parallelConvertingSupplier(hints, new Function<Issue, Text>() {
                     @Override
                     public Text apply(Issue issue, Set<Hint> hints) {
                         return listTransitions(context, issue);
                     }
                 }));
             } else {
-                return new IssueList(issueList.convertingSupplier(new Function<Issue, Issue>() {
+                return new IssueList(issueList.parallelConvertingSupplier(hints, new Function<Issue, Issue>() {
                     @Override
                     public Issue apply(Issue issue, Set<Hint> hints) {
                         return doTransition(context, issue);
@@ -33,7 +33,7 @@ import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.StringUtils;
 
-@CommandDescription(names = "update", description = "Update the given issues on the server")
+@CommandDescription(names = "update", description = "Update the given issues on the server", sideEffects = true)
 class Update implements Command {
     @Argument(names = { "-n", "--dry" }, description = "only print modified fields")
     private boolean dry;
@@ -54,7 +54,7 @@ class Update implements Command {
     public Data execute(final Context context, Data input) {
         IssueList issueList = input.toIssueListOrFail();
         if (dry) {
-            return new TextList(issueList.loadingSupplier(new Function<Issue, Collection<Text>>() {
+            return new TextList(issueList.parallelLoadingSupplier(Hint.none(), new Function<Issue, Collection<Text>>() {
                 @Override
                 public Collection<Text> apply(Issue issue, Set<Hint> hints) {
                     List<String> invalid;
@@ -85,7 +85,7 @@ class Update implements Command {
             }));
         } else {
             final boolean notifyUsers = !noEmail;
-            return new IssueList(issueList.convertingSupplier(new Function<Issue, Issue>() {
+            return new IssueList(issueList.parallelConvertingSupplier(Hint.none(), new Function<Issue, Issue>() {
                 @Override
                 public Issue apply(Issue issue, Set<Hint> hints) {
                     try {
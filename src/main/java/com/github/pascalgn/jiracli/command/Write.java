@@ -28,7 +28,7 @@ import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.util.Hint;
 import com.github.pascalgn.jiracli.util.IOUtils;
 
-@CommandDescription(names = "write", description = "Write the input to the given file")
+@CommandDescription(names = "write", description = "Write the input to the given file", sideEffects = true)
 class Write implements Command {
     @Argument(parameters = Parameters.ONE, variable = "<file>", description = "the file to write")
     private String filepath;
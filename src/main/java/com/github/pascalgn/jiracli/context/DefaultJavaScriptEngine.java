@@ -95,13 +95,13 @@ public class DefaultJavaScriptEngine implements JavaScriptEngine {
     }
 
     @Override
-    public TextList evaluate(String js) {
+    public synchronized TextList evaluate(String js) {
         Object result = doEvaluate(js, "");
         return parseResult(result);
     }
 
     @Override
-    public TextList evaluate(String js, Text input) {
+    public synchronized TextList evaluate(String js, Text input) {
         Object result = doEvaluate(js, input.getText());
         return parseResult(result);
     }
@@ -114,38 +114,49 @@ public class DefaultJavaScriptEngine implements JavaScriptEngine {
         while ((text = input.next(Hint.none())) != null) {
             arr.put(text.getText());
         }
-        Object obj = toJsonObject(arr.toString());
-        Object result = doEvaluate(js, obj);
-        return parseResult(result);
+        // the input has to be requested before locking, it might be supplied by other scripts:
+        synchronized (this) {
+            Object obj = toJsonObject(arr.toString());
+            Object result = doEvaluate(js, obj);
+            return parseResult(result);
+        }
     }
 
     @Override
     public TextList evaluate(String js, Issue input) {
-        Object inputObj = toJsonObject(ConversionUtils.toJson(input).toString());
-        Object resultObj = doEvaluate(js, inputObj);
-        return parseResult(resultObj);
+        String inputStr = ConversionUtils.toJson(input).toString();
+        synchronized (this) {
+            Object inputObj = toJsonObject(inputStr);
+            Object resultObj = doEvaluate(js, inputObj);
+            return parseResult(resultObj);
+        }
     }
 
     @Override
     public TextList evaluate(String js, IssueList input) {
         List<Issue> issues = input.remaining(Hint.none());
         String inputStr = toJsonArray(issues);
-        Object inputObj = toJsonObject(inputStr);
-        Object resultObj = doEvaluate(js, inputObj);
-        return parseResult(resultObj);
+        synchronized (this) {
+            Object inputObj = toJsonObject(inputStr);
+            Object resultObj = doEvaluate(js, inputObj);
+            return parseResult(resultObj);
+        }
     }
 
     @Override
-    public boolean test(String js, Text input) {
+    public synchronized boolean test(String js, Text input) {
         Object resultObj = doEvaluate(js, input.getText());
         return parseBooleanResult(resultObj);
     }
 
     @Override
     public boolean test(String js, Issue input) {
-        Object inputObj = toJsonObject(ConversionUtils.toJson(input).toString());
-        Object resultObj = doEvaluate(js, inputObj);
-        return parseBooleanResult(resultObj);
+        String inputStr = ConversionUtils.toJson(input).toString();
+        synchronized (this) {
+            Object inputObj = toJsonObject(inputStr);
+            Object resultObj = doEvaluate(js, inputObj);
+            return parseBooleanResult(resultObj);
+        }
     }
 
     private Object doEvaluate(String js, Object input) {
@@ -346,6 +357,16 @@ public class DefaultJavaScriptEngine implements JavaScriptEngine {
                 public boolean getAllFields() {
                     return false;
                 }
+
+                @Override
+                public int getPageSize() {
+                    return 0;
+                }
+
+                @Override
+                public int getLimit() {
+                    return 0;
+                }
             };
             Issue issue = webService.getIssue(key, request);
             String json = ConversionUtils.toJson(issue, fields).toString();
@@ -25,6 +25,8 @@ public class DefaultRequest implements Request {
     private final boolean allFields;
     private final Collection<String> fields;
     private final Collection<String> expand;
+    private final int pageSize;
+    private final int limit;
 
     public DefaultRequest() {
         this(false);
@@ -39,9 +41,20 @@ public class DefaultRequest implements Request {
     }
 
     public DefaultRequest(boolean allFields, Collection<String> fields, Collection<String> expand) {
+        this(allFields, fields, expand, 0);
+    }
+
+    public DefaultRequest(boolean allFields, Collection<String> fields, Collection<String> expand, int pageSize) {
+        this(allFields, fields, expand, pageSize, 0);
+    }
+
+    public DefaultRequest(boolean allFields, Collection<String> fields, Collection<String> expand, int pageSize,
+            int limit) {
         this.allFields = allFields;
         this.fields = fields;
         this.expand = expand;
+        this.pageSize = pageSize;
+        this.limit = limit;
     }
 
     @Override
@@ -59,8 +72,19 @@ public class DefaultRequest implements Request {
         return expand;
     }
 
+    @Override
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
     @Override
     public String toString() {
-        return "DefaultRequest[allFields=" + allFields + ", fields=" + fields + ", expand=" + expand + "]";
+        return "DefaultRequest[allFields=" + allFields + ", fields=" + fields + ", expand=" + expand
+                + ", pageSize=" + pageSize + ", limit=" + limit + "]";
     }
 }
@@ -49,6 +49,16 @@ public interface WebService extends AutoCloseable {
         Collection<String> getFields();
 
         Collection<String> getExpand();
+
+        /**
+         * @return The number of results per request, or 0 to use a page size depending on the requested fields
+         */
+        int getPageSize();
+
+        /**
+         * @return The number of results that will probably be needed, or 0 if all results might be needed
+         */
+        int getLimit();
     }
 
     interface CreateRequest {
@@ -57,6 +67,52 @@ public interface WebService extends AutoCloseable {
 
     interface Cache {
         void clear();
+
+        /**
+         * @return A readable summary of the cached entries, one line per category
+         */
+        List<String> getSummary();
+
+        /**
+         * @return A readable description of the given number of entries using the most memory, largest first
+         */
+        List<String> getLargestEntries(int count);
+
+        /**
+         * Removes the matching entries
+         *
+         * @param category The name of the category, or <code>null</code> to remove entries of all categories
+         * @param keyPattern Regular expression matching parts of the keys, or <code>null</code> to match all keys
+         * @return The number of entries removed
+         */
+        int evict(String category, String keyPattern);
+    }
+
+    interface Statistics {
+        /**
+         * Discards all recorded values
+         */
+        void clear();
+
+        /**
+         * @return A readable summary, one line per endpoint and cache
+         */
+        List<String> getSummary();
+
+        /**
+         * @return The number of requests which have been sent
+         */
+        long getRequests();
+
+        /**
+         * @return The number of responses which have been taken from the cache
+         */
+        long getCacheHits();
+
+        /**
+         * @return All recorded values as a JSON document
+         */
+        String toJson();
     }
 
     /**
@@ -102,6 +158,17 @@ public interface WebService extends AutoCloseable {
 
     List<Issue> searchIssues(String jql, Request request);
 
+    /**
+     * Like {@link #searchIssues(String, Request)}, but keeps a snapshot of the results and, on subsequent calls,
+     * only loads the issues that have been updated since the last call
+     */
+    List<Issue> syncIssues(String jql, Request request);
+
+    /**
+     * Returns the number of issues matching the given JQL, without loading the issues themselves
+     */
+    int countIssues(String jql);
+
     Issue getParent(Issue issue, Request request);
 
     Workflow getWorkflow(Issue issue);
@@ -141,6 +208,12 @@ public interface WebService extends AutoCloseable {
 
     Status getStatus(String name);
 
+    /**
+     * Returns the names of all values of the given system field, for fields with a fixed set of values like
+     * <code>status</code> or <code>priority</code>, otherwise <code>null</code>
+     */
+    List<String> getFieldValues(String field);
+
     Project getProject(String key);
 
     List<Project> getProjects();
@@ -167,6 +240,17 @@ public interface WebService extends AutoCloseable {
 
     Cache getCache();
 
+    /**
+     * Returns the statistics of the requests sent by this instance
+     */
+    Statistics getStatistics();
+
+    /**
+     * Stops reading the pages of search results which have been requested in advance, but not read completely, so
+     * that their connections can be used by other requests. Reading the remaining results of these searches fails.
+     */
+    void closePages();
+
     @Override
     void close();
 }
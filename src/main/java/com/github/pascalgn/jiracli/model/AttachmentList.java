@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class AttachmentList extends List<Attachment> {
@@ -46,4 +48,14 @@ public class AttachmentList extends List<Attachment> {
     public AttachmentList filteredList(Filter<Attachment> filter) {
         return new AttachmentList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public AttachmentList prefetchingList(Executor executor, int capacity) {
+        return new AttachmentList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public AttachmentList probingList(Probe probe) {
+        return new AttachmentList(new ProbingSupplier<>(this, probe));
+    }
 }
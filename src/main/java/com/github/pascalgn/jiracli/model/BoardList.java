@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class BoardList extends List<Board> {
@@ -46,4 +48,14 @@ public class BoardList extends List<Board> {
     public BoardList filteredList(Filter<Board> filter) {
         return new BoardList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public BoardList prefetchingList(Executor executor, int capacity) {
+        return new BoardList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public BoardList probingList(Probe probe) {
+        return new BoardList(new ProbingSupplier<>(this, probe));
+    }
 }
@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class CommentList extends List<Comment> {
@@ -41,4 +43,14 @@ public class CommentList extends List<Comment> {
     public CommentList filteredList(Filter<Comment> filter) {
         return new CommentList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public CommentList prefetchingList(Executor executor, int capacity) {
+        return new CommentList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public CommentList probingList(Probe probe) {
+        return new CommentList(new ProbingSupplier<>(this, probe));
+    }
 }
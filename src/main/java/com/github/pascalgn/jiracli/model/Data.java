@@ -18,8 +18,10 @@ package com.github.pascalgn.jiracli.model;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public abstract class Data {
@@ -61,10 +63,41 @@ public abstract class Data {
         }
     }
 
+    /**
+     * Returns the number of items, see {@link IssueHint#count()}
+     */
+    public int count(Set<Hint> hints) {
+        int count = 0;
+        Iterator<Data> it = toIterator(hints);
+        while (it.hasNext()) {
+            it.next();
+            ++count;
+        }
+        return count;
+    }
+
     public List<Data> toList(Filter<Data> filter) {
         return null;
     }
 
+    /**
+     * Returns data with the same content, which will be requested in the background using the given executor while
+     * it is being processed, or this instance if the data is not a list
+     *
+     * @param capacity the maximum number of batches which will be requested in advance
+     */
+    public Data prefetch(Executor executor, int capacity) {
+        return this;
+    }
+
+    /**
+     * Returns data with the same content, which notifies the given probe when items are requested, or this instance
+     * if the data is not a list
+     */
+    public Data probe(Probe probe) {
+        return this;
+    }
+
     public final List<Data> toListOrFail(Filter<Data> filter) {
         return convertOrFail(toList(filter), List.class);
     }
@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class FieldList extends List<Field> {
@@ -46,4 +48,14 @@ public class FieldList extends List<Field> {
     public FieldList filteredList(Filter<Field> filter) {
         return new FieldList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public FieldList prefetchingList(Executor executor, int capacity) {
+        return new FieldList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public FieldList probingList(Probe probe) {
+        return new FieldList(new ProbingSupplier<>(this, probe));
+    }
 }
@@ -81,6 +81,33 @@ public class IssueHint extends Hint {
         return EDITABLE_FIELDS;
     }
 
+    /**
+     * Indicates that at most the given number of issues will be needed. More issues might still be requested, so
+     * this may only be used to avoid loading issues in advance
+     */
+    public static IssueHint limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Invalid limit: " + limit);
+        }
+        return new Limit(limit);
+    }
+
+    /**
+     * Returns the smallest limit proposed by the given hints or 0 if there is no limit
+     */
+    public static int getLimit(Set<Hint> hints) {
+        int limit = 0;
+        for (Hint hint : hints) {
+            if (hint instanceof Limit) {
+                int l = ((Limit) hint).getLimit();
+                if (limit == 0 || l < limit) {
+                    limit = l;
+                }
+            }
+        }
+        return limit;
+    }
+
     /**
      * Returns all fields that are proposed by the given hints
      */
@@ -105,6 +132,40 @@ public class IssueHint extends Hint {
         }
     }
 
+    private static final class Limit extends IssueHint {
+        private final int limit;
+
+        public Limit(int limit) {
+            this.limit = limit;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 + limit;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Limit other = (Limit) obj;
+            return limit == other.limit;
+        }
+
+        @Override
+        public String toString() {
+            return "Limit[limit=" + limit + "]";
+        }
+    }
+
     private static class NamedHint extends IssueHint {
         private final String name;
 
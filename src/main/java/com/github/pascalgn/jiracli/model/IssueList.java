@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class IssueList extends List<Issue> {
@@ -46,4 +48,14 @@ public class IssueList extends List<Issue> {
     public IssueList filteredList(Filter<Issue> filter) {
         return new IssueList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public IssueList prefetchingList(Executor executor, int capacity) {
+        return new IssueList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public IssueList probingList(Probe probe) {
+        return new IssueList(new ProbingSupplier<>(this, probe));
+    }
 }
@@ -17,11 +17,17 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.BatchSupplier;
+import com.github.pascalgn.jiracli.util.CountableSupplier;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.ParallelHint;
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 abstract class List<T extends Data> extends Data {
@@ -37,11 +43,20 @@ abstract class List<T extends Data> extends Data {
     }
 
     public List(final Iterator<T> iterator) {
-        this(new Supplier<T>() {
+        this(new BatchSupplier<T>() {
             @Override
             public T get(Set<Hint> hints) {
                 return iterator.hasNext() ? iterator.next() : null;
             }
+
+            @Override
+            public java.util.List<T> getBatch(int size, Set<Hint> hints) {
+                java.util.List<T> batch = new ArrayList<>();
+                while (batch.size() < size && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                return batch;
+            }
         });
     }
 
@@ -57,15 +72,56 @@ abstract class List<T extends Data> extends Data {
         return supplier.get(hints);
     }
 
+    /**
+     * Returns up to <code>size</code> items, but at least one item unless there are no more items. Suppliers which
+     * don't implement {@link BatchSupplier} will be called repeatedly.
+     */
+    public java.util.List<T> nextBatch(int size, Set<Hint> hints) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + size);
+        }
+        if (supplier instanceof BatchSupplier) {
+            return ((BatchSupplier<T>) supplier).getBatch(size, hints);
+        }
+        T item = next(hints);
+        if (item == null) {
+            return Collections.emptyList();
+        } else if (size == 1) {
+            return Collections.singletonList(item);
+        }
+        java.util.List<T> batch = new ArrayList<>();
+        batch.add(item);
+        while (batch.size() < size && (item = next(hints)) != null) {
+            batch.add(item);
+        }
+        return batch;
+    }
+
     public java.util.List<T> remaining(Set<Hint> hints) {
         java.util.List<T> result = new ArrayList<>();
-        T item;
-        while ((item = next(hints)) != null) {
-            result.add(item);
+        java.util.List<T> batch;
+        while (!(batch = nextBatch(BatchSupplier.DEFAULT_SIZE, hints)).isEmpty()) {
+            result.addAll(batch);
         }
         return result;
     }
 
+    @Override
+    public int count(Set<Hint> hints) {
+        if (supplier instanceof CountableSupplier) {
+            int count = ((CountableSupplier<T>) supplier).count(hints);
+            if (count >= 0) {
+                return count;
+            }
+        }
+        int count = 0;
+        java.util.List<T> batch;
+        while (!(batch = nextBatch(BatchSupplier.DEFAULT_SIZE, hints)).isEmpty()) {
+            count += batch.size();
+        }
+        return count;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List<Data> toList(Filter<Data> filter) {
@@ -84,17 +140,106 @@ abstract class List<T extends Data> extends Data {
 
     public abstract List<T> filteredList(Filter<T> filter);
 
+    @Override
+    public Data prefetch(Executor executor, int capacity) {
+        return prefetchingList(executor, capacity);
+    }
+
+    /**
+     * Returns a list of the same items, which are requested from this list by a background task
+     */
+    public abstract List<T> prefetchingList(Executor executor, int capacity);
+
+    @Override
+    public Data probe(Probe probe) {
+        return probingList(probe);
+    }
+
+    /**
+     * Returns a list of the same items, which notifies the given probe when items are requested
+     */
+    public abstract List<T> probingList(Probe probe);
+
     public <R> Supplier<R> convertingSupplier(Function<T, R> function) {
         return convertingSupplier(Hint.none(), function);
     }
 
+    /**
+     * Returns a supplier of the converted items. When requested in batches, the hints will only be combined once
+     * per batch and the items will be requested from this list in batches as well. Items for which the function
+     * returns <code>null</code> are skipped, like in {@link #parallelConvertingSupplier(Set, Function)}, so the
+     * result doesn't depend on whether the items are requested one by one or in batches.
+     */
     public <R> Supplier<R> convertingSupplier(final Set<Hint> hints, final Function<T, R> function) {
-        return new Supplier<R>() {
+        return new BatchSupplier<R>() {
             @Override
             public R get(Set<Hint> localHints) {
                 Set<Hint> combined = Hint.combine(hints, localHints);
-                T next = next(combined);
-                return (next == null ? null : function.apply(next, combined));
+                T next;
+                while ((next = next(combined)) != null) {
+                    R converted = function.apply(next, combined);
+                    if (converted != null) {
+                        return converted;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public java.util.List<R> getBatch(int size, Set<Hint> localHints) {
+                Set<Hint> combined = Hint.combine(hints, localHints);
+                java.util.List<R> result = new ArrayList<>();
+                while (result.isEmpty()) {
+                    java.util.List<T> batch = nextBatch(size, combined);
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    for (T item : batch) {
+                        R converted = function.apply(item, combined);
+                        if (converted != null) {
+                            result.add(converted);
+                        }
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a supplier of the items for which the given function returns <code>true</code>. When requested in
+     * batches, the items will be requested from this list in batches as well.
+     */
+    public Supplier<T> filteringSupplier(final Set<Hint> hints, final Function<T, Boolean> function) {
+        return new BatchSupplier<T>() {
+            @Override
+            public T get(Set<Hint> localHints) {
+                Set<Hint> combined = Hint.combine(hints, localHints);
+                T next;
+                while ((next = next(combined)) != null) {
+                    if (function.apply(next, combined)) {
+                        return next;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public java.util.List<T> getBatch(int size, Set<Hint> localHints) {
+                Set<Hint> combined = Hint.combine(hints, localHints);
+                java.util.List<T> result = new ArrayList<>();
+                while (result.isEmpty()) {
+                    java.util.List<T> batch = nextBatch(size, combined);
+                    if (batch.isEmpty()) {
+                        break;
+                    }
+                    for (T item : batch) {
+                        if (function.apply(item, combined)) {
+                            result.add(item);
+                        }
+                    }
+                }
+                return result;
             }
         };
     }
@@ -104,26 +249,62 @@ abstract class List<T extends Data> extends Data {
     }
 
     public <R> Supplier<R> loadingSupplier(final Set<Hint> hints, final Function<T, Collection<R>> function) {
-        return new Supplier<R>() {
+        return new BatchSupplier<R>() {
             private Iterator<R> iterator;
 
             @Override
             public R get(Set<Hint> localHints) {
                 Set<Hint> combined = Hint.combine(hints, localHints);
+                return (load(combined) ? iterator.next() : null);
+            }
+
+            @Override
+            public java.util.List<R> getBatch(int size, Set<Hint> localHints) {
+                Set<Hint> combined = Hint.combine(hints, localHints);
+                java.util.List<R> result = new ArrayList<>();
+                while (result.size() < size && load(combined)) {
+                    result.add(iterator.next());
+                }
+                return result;
+            }
+
+            private boolean load(Set<Hint> combined) {
                 while (iterator == null || !iterator.hasNext()) {
                     T next = next(combined);
                     if (next == null) {
-                        return null;
+                        return false;
                     } else {
                         Collection<R> collection = function.apply(next, combined);
                         iterator = collection.iterator();
                     }
                 }
-                return (iterator.hasNext() ? iterator.next() : null);
+                return true;
             }
         };
     }
 
+    /**
+     * Returns a supplier of the converted items, which converts multiple items at the same time when requested with a
+     * {@link ParallelHint}. The function only receives the hints of the request, not the given hints.
+     */
+    public <R> Supplier<R> parallelConvertingSupplier(Set<Hint> hints, final Function<T, R> function) {
+        return new ParallelSupplier<>(this, hints, new Function<T, Collection<R>>() {
+            @Override
+            public Collection<R> apply(T item, Set<Hint> hints) {
+                R converted = function.apply(item, hints);
+                return (converted == null ? Collections.<R> emptyList() : Collections.singletonList(converted));
+            }
+        });
+    }
+
+    /**
+     * Returns a supplier of the loaded items, which loads the items for multiple items at the same time when
+     * requested with a {@link ParallelHint}. The function only receives the hints of the request, not the given hints.
+     */
+    public <R> Supplier<R> parallelLoadingSupplier(Set<Hint> hints, Function<T, Collection<R>> function) {
+        return new ParallelSupplier<>(this, hints, function);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName();
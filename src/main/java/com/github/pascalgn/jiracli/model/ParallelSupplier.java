@@ -0,0 +1,188 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.github.pascalgn.jiracli.util.BatchSupplier;
+import com.github.pascalgn.jiracli.util.Function;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.InterruptedError;
+import com.github.pascalgn.jiracli.util.ParallelHint;
+
+/**
+ * Supplies the results of the given function for all items of a list. When requested with a {@link ParallelHint},
+ * the function will be applied to multiple items at the same time.
+ * <p>
+ * The items are requested from the list with the given hints combined with the hints of the request, while the
+ * function only receives the hints of the request. When the hints contain a limit, no more items than the limit will
+ * be processed at the same time.
+ */
+class ParallelSupplier<T extends Data, R> implements BatchSupplier<R> {
+    private final List<T> list;
+    private final Set<Hint> hints;
+    private final Function<T, Collection<R>> function;
+
+    private final Deque<Task> pending;
+    private final BlockingQueue<Task> completed;
+
+    private Boolean ordered;
+    private boolean exhausted;
+    private Iterator<R> current;
+
+    public ParallelSupplier(List<T> list, Set<Hint> hints, Function<T, Collection<R>> function) {
+        this.list = list;
+        this.hints = hints;
+        this.function = function;
+        this.pending = new ArrayDeque<>();
+        this.completed = new LinkedBlockingQueue<>();
+    }
+
+    @Override
+    public synchronized R get(Set<Hint> localHints) {
+        java.util.List<R> batch = getBatch(1, localHints);
+        return (batch.isEmpty() ? null : batch.get(0));
+    }
+
+    @Override
+    public synchronized java.util.List<R> getBatch(int size, Set<Hint> localHints) {
+        Set<Hint> combined = Hint.combine(hints, localHints);
+        ParallelHint parallel = ParallelHint.get(combined);
+        if (parallel != null && ordered == null) {
+            ordered = parallel.isOrdered();
+        }
+        java.util.List<R> result = new ArrayList<>();
+        while (result.size() < size) {
+            if (current != null && current.hasNext()) {
+                result.add(current.next());
+                continue;
+            }
+            if (parallel != null) {
+                submit(parallel, combined, localHints);
+            }
+            if (!pending.isEmpty()) {
+                if (result.isEmpty() || isDone()) {
+                    current = take().iterator();
+                } else {
+                    // don't wait, the items processed so far can already be used
+                    break;
+                }
+            } else if (exhausted) {
+                break;
+            } else {
+                T next = list.next(combined);
+                if (next == null) {
+                    exhausted = true;
+                } else {
+                    current = apply(next, localHints).iterator();
+                }
+            }
+        }
+        return result;
+    }
+
+    private void submit(ParallelHint parallel, Set<Hint> combined, Set<Hint> localHints) {
+        // don't process more items than requested, the function might change the items:
+        int max = parallel.getConcurrency();
+        int limit = IssueHint.getLimit(combined);
+        if (limit > 0) {
+            max = Math.min(max, limit);
+        }
+        while (!exhausted && pending.size() < max) {
+            java.util.List<T> items = list.nextBatch(max - pending.size(), combined);
+            if (items.isEmpty()) {
+                exhausted = true;
+            }
+            for (T item : items) {
+                Task task = new Task(item, localHints);
+                pending.add(task);
+                parallel.getExecutor().execute(task);
+            }
+        }
+    }
+
+    private boolean isDone() {
+        return (ordered ? pending.getFirst().isDone() : !completed.isEmpty());
+    }
+
+    private Collection<R> take() {
+        Task task;
+        try {
+            if (ordered) {
+                task = pending.removeFirst();
+            } else {
+                task = completed.take();
+                pending.remove(task);
+            }
+            return task.get();
+        } catch (InterruptedException e) {
+            cancel();
+            throw new InterruptedError(e);
+        } catch (ExecutionException e) {
+            cancel();
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private void cancel() {
+        for (Task task : pending) {
+            task.cancel(true);
+        }
+        pending.clear();
+        completed.clear();
+    }
+
+    private Collection<R> apply(T item, Set<Hint> localHints) {
+        Collection<R> collection = function.apply(item, localHints);
+        return (collection == null ? Collections.<R> emptyList() : collection);
+    }
+
+    private class Task extends FutureTask<Collection<R>> {
+        public Task(final T item, final Set<Hint> localHints) {
+            super(new Callable<Collection<R>>() {
+                @Override
+                public Collection<R> call() {
+                    return apply(item, localHints);
+                }
+            });
+        }
+
+        @Override
+        protected void done() {
+            if (!ordered) {
+                completed.add(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+
+import com.github.pascalgn.jiracli.util.BatchSupplier;
+import com.github.pascalgn.jiracli.util.CountableSupplier;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.InterruptedError;
+
+/**
+ * Supplies the items of a list which are requested in batches by a background task. The task is started on the first
+ * request, using the hints of that request, and blocks when <code>capacity</code> batches are waiting to be supplied.
+ * Every batch has the size of the last request. If the hints of the first request contain a limit, the task stops
+ * after that number of items and further items are requested directly from the list.
+ * The items are supplied in the same order as they are supplied by the list.
+ */
+class PrefetchingSupplier<T extends Data> implements BatchSupplier<T>, CountableSupplier<T> {
+    private static final Object END = new Object();
+    private static final Object LIMIT = new Object();
+
+    private final List<T> list;
+    private final Executor executor;
+    private final BlockingQueue<Object> queue;
+
+    private volatile int size;
+
+    private boolean started;
+    private boolean stopped;
+    private boolean finished;
+
+    private java.util.List<T> current;
+    private int index;
+
+    public PrefetchingSupplier(List<T> list, Executor executor, int capacity) {
+        this.list = list;
+        this.executor = executor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized T get(Set<Hint> hints) {
+        return (fill(1, hints) ? current.get(index++) : null);
+    }
+
+    @Override
+    public synchronized java.util.List<T> getBatch(int size, Set<Hint> hints) {
+        if (!fill(size, hints)) {
+            return Collections.emptyList();
+        } else if (index == 0 && current.size() <= size) {
+            index = current.size();
+            return current;
+        } else {
+            int end = Math.min(current.size(), index + size);
+            java.util.List<T> batch = new ArrayList<>(current.subList(index, end));
+            index = end;
+            return batch;
+        }
+    }
+
+    @Override
+    public synchronized int count(Set<Hint> hints) {
+        if (started) {
+            return -1;
+        }
+        // nothing has been requested yet, so the list can count the items itself:
+        started = true;
+        finished = true;
+        return list.count(hints);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean fill(int size, Set<Hint> hints) {
+        this.size = size;
+        if (!started) {
+            started = true;
+            executor.execute(new Task(hints, IssueHint.getLimit(hints)));
+        }
+        while (current == null || index >= current.size()) {
+            if (finished) {
+                return false;
+            } else if (stopped) {
+                current = list.nextBatch(size, hints);
+                index = 0;
+                if (current.isEmpty()) {
+                    finished = true;
+                }
+                continue;
+            }
+            Object obj;
+            try {
+                obj = queue.take();
+            } catch (InterruptedException e) {
+                throw new InterruptedError(e);
+            }
+            if (obj == END) {
+                finished = true;
+            } else if (obj == LIMIT) {
+                stopped = true;
+            } else if (obj instanceof Failure) {
+                finished = true;
+                Throwable cause = ((Failure) obj).cause;
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw (RuntimeException) cause;
+                }
+            } else {
+                current = (java.util.List<T>) obj;
+                index = 0;
+            }
+        }
+        return true;
+    }
+
+    private class Task implements Runnable {
+        private final Set<Hint> hints;
+        private final int limit;
+
+        public Task(Set<Hint> hints, int limit) {
+            this.hints = hints;
+            this.limit = limit;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int supplied = 0;
+                while (limit == 0 || supplied < limit) {
+                    int batchSize = (limit == 0 ? size : Math.min(size, limit - supplied));
+                    java.util.List<T> batch = list.nextBatch(batchSize, hints);
+                    if (batch.isEmpty()) {
+                        queue.put(END);
+                        return;
+                    }
+                    supplied += batch.size();
+                    queue.put(batch);
+                }
+                queue.put(LIMIT);
+            } catch (InterruptedException | InterruptedError e) {
+                // the supplier has been closed, no one is waiting for further items
+            } catch (RuntimeException | Error e) {
+                try {
+                    queue.put(new Failure(e));
+                } catch (InterruptedException e2) {
+                    // the supplier has been closed, no one is waiting for further items
+                }
+            }
+        }
+    }
+
+    private static class Failure {
+        private final Throwable cause;
+
+        public Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.model;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.github.pascalgn.jiracli.util.BatchSupplier;
+import com.github.pascalgn.jiracli.util.CountableSupplier;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Probe;
+
+/**
+ * Supplies the items of a list and notifies the probe about every request
+ */
+class ProbingSupplier<T extends Data> implements BatchSupplier<T>, CountableSupplier<T> {
+    private final List<T> list;
+    private final Probe probe;
+
+    public ProbingSupplier(List<T> list, Probe probe) {
+        this.list = list;
+        this.probe = probe;
+    }
+
+    @Override
+    public T get(Set<Hint> hints) {
+        Object state = probe.start(hints);
+        if (state == null) {
+            return null;
+        }
+        T item = null;
+        try {
+            item = list.next(hints);
+        } finally {
+            probe.stop(state, item == null ? 0 : 1);
+        }
+        return item;
+    }
+
+    @Override
+    public java.util.List<T> getBatch(int size, Set<Hint> hints) {
+        Object state = probe.start(hints);
+        if (state == null) {
+            return Collections.emptyList();
+        }
+        java.util.List<T> batch = null;
+        try {
+            batch = list.nextBatch(size, hints);
+        } finally {
+            probe.stop(state, batch == null ? 0 : batch.size());
+        }
+        return batch;
+    }
+
+    @Override
+    public int count(Set<Hint> hints) {
+        Object state = probe.start(hints);
+        if (state == null) {
+            return 0;
+        }
+        int count = 0;
+        try {
+            count = list.count(hints);
+        } finally {
+            probe.stop(state, count);
+        }
+        return count;
+    }
+}
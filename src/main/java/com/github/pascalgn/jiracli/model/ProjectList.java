@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class ProjectList extends List<Project> {
@@ -46,4 +48,14 @@ public class ProjectList extends List<Project> {
     public ProjectList filteredList(Filter<Project> filter) {
         return new ProjectList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public ProjectList prefetchingList(Executor executor, int capacity) {
+        return new ProjectList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public ProjectList probingList(Probe probe) {
+        return new ProjectList(new ProbingSupplier<>(this, probe));
+    }
 }
@@ -17,7 +17,9 @@ package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class SprintList extends List<Sprint> {
@@ -46,4 +48,14 @@ public class SprintList extends List<Sprint> {
     public SprintList filteredList(Filter<Sprint> filter) {
         return new SprintList(new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public SprintList prefetchingList(Executor executor, int capacity) {
+        return new SprintList(new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public SprintList probingList(Probe probe) {
+        return new SprintList(new ProbingSupplier<>(this, probe));
+    }
 }
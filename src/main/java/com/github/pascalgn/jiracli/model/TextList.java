@@ -16,12 +16,16 @@
 package com.github.pascalgn.jiracli.model;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
+import com.github.pascalgn.jiracli.util.BatchSupplier;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Functions;
 import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Probe;
 import com.github.pascalgn.jiracli.util.Supplier;
 
 public class TextList extends List<Text> {
@@ -76,7 +80,7 @@ public class TextList extends List<Text> {
 
     private static Supplier<Text> combine(final TextList[] lists) {
         final int[] index = { 0 };
-        return new Supplier<Text>() {
+        return new BatchSupplier<Text>() {
             @Override
             public Text get(Set<Hint> hints) {
                 while (index[0] < lists.length) {
@@ -90,6 +94,20 @@ public class TextList extends List<Text> {
                 }
                 return null;
             }
+
+            @Override
+            public java.util.List<Text> getBatch(int size, Set<Hint> hints) {
+                while (index[0] < lists.length) {
+                    TextList list = lists[index[0]];
+                    java.util.List<Text> batch = list.nextBatch(size, hints);
+                    if (batch.isEmpty()) {
+                        index[0] += 1;
+                    } else {
+                        return batch;
+                    }
+                }
+                return Collections.emptyList();
+            }
         };
     }
 
@@ -129,4 +147,14 @@ public class TextList extends List<Text> {
     public TextList filteredList(Filter<Text> filter) {
         return new TextList(type, new FilteredSupplier<>(getSupplier(), filter));
     }
+
+    @Override
+    public TextList prefetchingList(Executor executor, int capacity) {
+        return new TextList(type, new PrefetchingSupplier<>(this, executor, capacity));
+    }
+
+    @Override
+    public TextList probingList(Probe probe) {
+        return new TextList(type, new ProbingSupplier<>(this, probe));
+    }
 }
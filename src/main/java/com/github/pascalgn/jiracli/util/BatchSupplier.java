@@ -0,0 +1,34 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.util;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A supplier which can supply multiple items per call, to avoid the overhead of requesting every single item
+ */
+public interface BatchSupplier<T> extends Supplier<T> {
+    /**
+     * The default number of items to request per batch, configurable with <code>jiracli.batch.size</code>
+     */
+    int DEFAULT_SIZE = Math.max(1, Integer.getInteger("jiracli.batch.size", 50));
+
+    /**
+     * @return up to <code>size</code> items, but at least one item unless there are no more items
+     */
+    List<T> getBatch(int size, Set<Hint> hints);
+}
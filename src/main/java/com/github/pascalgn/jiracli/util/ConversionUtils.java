@@ -52,6 +52,16 @@ public class ConversionUtils {
         public Collection<String> getExpand() {
             return Collections.emptyList();
         }
+
+        @Override
+        public int getPageSize() {
+            return 0;
+        }
+
+        @Override
+        public int getLimit() {
+            return 0;
+        }
     };
 
     private static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
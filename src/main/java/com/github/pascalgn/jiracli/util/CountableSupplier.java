@@ -0,0 +1,28 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.util;
+
+import java.util.Set;
+
+/**
+ * A supplier which can determine the number of remaining items without supplying them
+ */
+public interface CountableSupplier<T> extends Supplier<T> {
+    /**
+     * @return the number of remaining items or -1 if the number can only be determined by supplying the items
+     */
+    int count(Set<Hint> hints);
+}
@@ -40,6 +40,10 @@ public abstract class Hint {
             return hints1;
         } else if (hints1.isEmpty() && !hints2.isEmpty()) {
             return hints2;
+        } else if (hints1.containsAll(hints2)) {
+            return hints1;
+        } else if (hints2.containsAll(hints1)) {
+            return hints2;
         } else {
             Set<Hint> hints = new HashSet<>(hints1);
             hints.addAll(hints2);
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.util;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * Indicates that the items may be processed concurrently, using the given executor
+ */
+public final class ParallelHint extends Hint {
+    private final Executor executor;
+    private final int concurrency;
+    private final boolean ordered;
+
+    /**
+     * @param concurrency the maximum number of items which will be processed at the same time
+     * @param ordered <code>false</code> if the items may be supplied in the order their processing completed
+     */
+    public ParallelHint(Executor executor, int concurrency, boolean ordered) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+        }
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Returns the parallel hint contained in the given hints or <code>null</code>
+     */
+    public static ParallelHint get(Set<Hint> hints) {
+        for (Hint hint : hints) {
+            if (hint instanceof ParallelHint) {
+                return (ParallelHint) hint;
+            }
+        }
+        return null;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelHint[concurrency=" + concurrency + ", ordered=" + ordered + "]";
+    }
+}
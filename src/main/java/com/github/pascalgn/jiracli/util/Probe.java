@@ -0,0 +1,38 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.util;
+
+import java.util.Set;
+
+/**
+ * Observes the requests of items from a list
+ */
+public interface Probe {
+    /**
+     * Called before items are requested with the given hints
+     *
+     * @return A state which will be passed to {@link #stop(Object, int)} or <code>null</code> if no items should be
+     *         requested, in which case the list will appear to be empty
+     */
+    Object start(Set<Hint> hints);
+
+    /**
+     * Called after items have been requested, also if the request failed
+     *
+     * @param items the number of supplied items
+     */
+    void stop(Object state, int items);
+}
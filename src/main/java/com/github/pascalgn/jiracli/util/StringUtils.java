@@ -109,6 +109,37 @@ public class StringUtils {
         }
     }
 
+    /**
+     * Replaces the contents of single or double quoted strings, including the quotes, with spaces. The result has the
+     * same length, so that indices of matches in the result can be used for the original string.
+     */
+    public static String maskQuoted(String str) {
+        StringBuilder result = new StringBuilder(str.length());
+        char quote = 0;
+        boolean escaped = false;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (quote == 0) {
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                    result.append(' ');
+                } else {
+                    result.append(c);
+                }
+            } else {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+                result.append(' ');
+            }
+        }
+        return result.toString();
+    }
+
     public static String shorten(String str, int length) {
         if (length < 3) {
             throw new IllegalArgumentException("Invalid length");
@@ -0,0 +1,174 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.pascalgn.jiracli.Constants;
+import com.github.pascalgn.jiracli.util.SystemUtils;
+
+/**
+ * Binary file containing cache entries, so that they can be used by the next instance
+ */
+class CacheFile {
+    private static final int MAGIC = 0x4A434302;
+
+    private final File file;
+    private final String id;
+
+    /**
+     * @param id Identifies the server and the user the entries belong to
+     */
+    public CacheFile(File file, String id) {
+        this.file = file;
+        this.id = id;
+    }
+
+    /**
+     * Returns the cache file for the given server and user, in the application home directory
+     */
+    public static CacheFile forServer(String baseUrl, String username) {
+        File dir = new File(SystemUtils.getHome(Constants.getName()), "cache");
+        if (!dir.isDirectory() && !dir.mkdir() && !dir.isDirectory()) {
+            throw new IllegalStateException("Directory does not exist and cannot be created: " + dir);
+        }
+        String id = username + "@" + baseUrl;
+        return new CacheFile(new File(dir, hash(id) + ".bin"), id);
+    }
+
+    private static String hash(String str) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest(str.getBytes(StandardCharsets.UTF_8))) {
+            hash.append(String.format("%02x", b & 0xff));
+        }
+        return hash.toString();
+    }
+
+    /**
+     * @return The entries which have not expired yet, or an empty list if the file does not exist or belongs to
+     *         another server or user
+     */
+    public List<Record> read() throws IOException {
+        List<Record> records = new ArrayList<>();
+        if (!file.isFile()) {
+            return records;
+        }
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))))) {
+            if (input.readInt() != MAGIC || !input.readUTF().equals(id)) {
+                return records;
+            }
+            long now = System.currentTimeMillis();
+            while (input.readBoolean()) {
+                String category = input.readUTF();
+                String key = input.readUTF();
+                long expires = input.readLong();
+                byte[] value = new byte[input.readInt()];
+                input.readFully(value);
+                if (expires > now) {
+                    records.add(new Record(category, key, new String(value, StandardCharsets.UTF_8), expires));
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Incomplete file: " + file, e);
+        }
+        return records;
+    }
+
+    public void write(List<Record> records) throws IOException {
+        // write to a temporary file first, so that other instances never read an incomplete file:
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmp))))) {
+            output.writeInt(MAGIC);
+            output.writeUTF(id);
+            for (Record record : records) {
+                output.writeBoolean(true);
+                output.writeUTF(record.category);
+                output.writeUTF(record.key);
+                output.writeLong(record.expires);
+                byte[] value = record.value.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(value.length);
+                output.write(value);
+            }
+            output.writeBoolean(false);
+        }
+        if (!tmp.renameTo(file)) {
+            if (!file.delete() || !tmp.renameTo(file)) {
+                throw new IOException("Could not rename " + tmp + " to " + file);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return file.toString();
+    }
+
+    public static class Record {
+        private final String category;
+        private final String key;
+        private final String value;
+        private final long expires;
+
+        /**
+         * @param expires The time after which the entry should not be used anymore, in milliseconds since epoch
+         */
+        public Record(String category, String key, String value, long expires) {
+            this.category = category;
+            this.key = key;
+            this.value = value;
+            this.expires = expires;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getExpires() {
+            return expires;
+        }
+    }
+}
@@ -15,75 +15,620 @@
  */
 package com.github.pascalgn.jiracli.web;
 
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.json.JSONArray;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.github.pascalgn.jiracli.context.WebService.Cache;
 import com.github.pascalgn.jiracli.model.Workflow;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.StringUtils;
+import com.github.pascalgn.jiracli.util.Supplier;
+import com.github.pascalgn.jiracli.web.CacheFile.Record;
 
+/**
+ * Cache with a limited size: when the size is exceeded, the least recently used entries are removed. Every
+ * category of entries has its own time to live. Entries are indexed by the issue keys they contain, so that they
+ * can be invalidated when an issue is changed.
+ */
 class CacheImpl implements Cache {
-    private final Map<String, String> responseCache;
-    private final Map<String, JSONObject> issueListCache;
-    private final Map<String, JSONObject> fieldCache;
-    private final Map<String, Workflow> workflowCache;
-    private Map<String, FieldInfo> fieldInfoCache;
+    /**
+     * Maximum estimated size of all entries, in megabytes
+     */
+    private static final long MAX_SIZE = Long.getLong("jiracli.cache.size",
+            Runtime.getRuntime().maxMemory() / 4 / 1024 / 1024);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheImpl.class);
+
+    private static final String FIELD_INFOS = "fieldInfos";
+
+    /**
+     * Longer keys, usually searches for many issue keys, will not be written to the cache file
+     */
+    private static final int MAX_PERSISTENT_KEY_LENGTH = 8192;
+
+    private static final int MAX_DISPLAY_LENGTH = 100;
+
+    private static final Pattern ISSUE_KEY = Pattern.compile("\\b[A-Z][A-Z0-9_]*-[0-9]+\\b");
+
+    /**
+     * Paths of responses containing lists of issues, which might change when issues are created
+     */
+    private static final Pattern ISSUE_LIST = Pattern.compile(".*/search\\?.*|.*/(board|sprint)/[0-9]+/(issue|epic).*");
+
+    enum Category {
+        RESPONSES("responses", TimeUnit.HOURS.toSeconds(1), true),
+        SEARCHES("searches", TimeUnit.MINUTES.toSeconds(5), false),
+        SNAPSHOTS("snapshots", TimeUnit.DAYS.toSeconds(7), true),
+        ISSUES("issues", TimeUnit.MINUTES.toSeconds(15), true),
+        WORKFLOW_NAMES("workflowNames", TimeUnit.HOURS.toSeconds(12), true),
+        WORKFLOWS("workflows", TimeUnit.HOURS.toSeconds(12), false),
+        SCHEMA("schema", TimeUnit.HOURS.toSeconds(12), false);
+
+        private final String name;
+        private final long timeToLive;
+        private final boolean persistent;
+
+        /**
+         * @param persistent If the entries can be stored in the cache file. The values of persistent categories
+         *            must be written as JSON by their toString method and parsed again in {@link #load()}
+         */
+        private Category(String name, long defaultTimeToLive, boolean persistent) {
+            this.name = name;
+            long seconds = Long.getLong("jiracli.cache.ttl." + name, defaultTimeToLive);
+            this.timeToLive = TimeUnit.SECONDS.toNanos(seconds);
+            this.persistent = persistent;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final long maxSize;
+
+    /**
+     * All entries, the least recently used first
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+
+    /**
+     * Cache entries by the keys of the issues they contain
+     */
+    private final Map<String, Set<Key>> index;
+
+    private final Map<Category, Counters> counters;
+
+    private long size;
+
+    private Supplier<CacheFile> cacheFile;
+    private CacheFile loadedFile;
 
     public CacheImpl() {
-        this.responseCache = new HashMap<>();
-        this.issueListCache = new HashMap<>();
-        this.fieldCache = new HashMap<>();
-        this.workflowCache = new HashMap<>();
-        this.fieldInfoCache = null;
+        this(MAX_SIZE * 1024 * 1024);
+    }
+
+    CacheImpl(long maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.index = new HashMap<>();
+        this.counters = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            counters.put(category, new Counters());
+        }
     }
 
     public String getResponse(String path) {
-        return responseCache.get(path);
+        CachedResponse response = (CachedResponse) get(Category.RESPONSES, path);
+        return (response == null ? null : response.getBody());
+    }
+
+    /**
+     * @return The response, even if it has expired, if it can be revalidated, <code>null</code> otherwise
+     */
+    public synchronized CachedResponse getExpiredResponse(String path) {
+        Entry entry = entries.get(new Key(Category.RESPONSES, path));
+        return (entry == null ? null : (CachedResponse) entry.value);
     }
 
     public void putResponse(String path, String response) {
-        responseCache.put(path, response);
+        putResponse(path, new CachedResponse(response, null, null));
+    }
+
+    public void putResponse(String path, CachedResponse response) {
+        put(Category.RESPONSES, path, response);
     }
 
     public JSONObject getIssues(String path) {
-        return issueListCache.get(path);
+        return (JSONObject) get(Category.SEARCHES, path);
     }
 
     public void putIssues(String path, JSONObject issues) {
-        issueListCache.put(path, issues);
+        put(Category.SEARCHES, path, issues);
+    }
+
+    public Snapshot getSnapshot(String jql) {
+        return (Snapshot) get(Category.SNAPSHOTS, jql);
+    }
+
+    public void putSnapshot(String jql, Snapshot snapshot) {
+        put(Category.SNAPSHOTS, jql, snapshot);
+    }
+
+    public CompactFields getFields(String key) {
+        return (CompactFields) get(Category.ISSUES, key);
+    }
+
+    public void putFields(String key, CompactFields fields) {
+        put(Category.ISSUES, key, fields);
     }
 
-    public JSONObject getFields(String key) {
-        return fieldCache.get(key);
+    /**
+     * @param workflowKey The project and issue type, which together determine the workflow
+     */
+    public String getWorkflowName(String workflowKey) {
+        return (String) get(Category.WORKFLOW_NAMES, workflowKey);
     }
 
-    public void putFields(String key, JSONObject fields) {
-        fieldCache.put(key, fields);
+    public void putWorkflowName(String workflowKey, String workflowName) {
+        put(Category.WORKFLOW_NAMES, workflowKey, workflowName);
     }
 
-    public Workflow getWorkflow(String key) {
-        return workflowCache.get(key);
+    public Workflow getWorkflow(String workflowName) {
+        return (Workflow) get(Category.WORKFLOWS, workflowName);
     }
 
-    public void putWorkflow(String key, Workflow workflow) {
-        workflowCache.put(key, workflow);
+    public void putWorkflow(String workflowName, Workflow workflow) {
+        put(Category.WORKFLOWS, workflowName, workflow);
     }
 
+    @SuppressWarnings("unchecked")
     public Map<String, FieldInfo> getFieldInfos() {
-        return fieldInfoCache;
+        return (Map<String, FieldInfo>) get(Category.SCHEMA, FIELD_INFOS);
     }
 
     public void setFieldInfos(Map<String, FieldInfo> fieldInfos) {
-        this.fieldInfoCache = fieldInfos;
+        put(Category.SCHEMA, FIELD_INFOS, fieldInfos);
+    }
+
+    /**
+     * Records whether a lookup of the given category could be answered from the cache
+     */
+    public synchronized <T> T record(Category category, T cached) {
+        Counters c = counters.get(category);
+        if (cached == null) {
+            ++c.misses;
+        } else {
+            ++c.hits;
+        }
+        return cached;
+    }
+
+    /**
+     * Entries will be loaded from the given file on first access and written to it by {@link #save()}
+     */
+    public synchronized void setCacheFile(Supplier<CacheFile> cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    private void load() {
+        if (cacheFile == null || loadedFile != null) {
+            return;
+        }
+        loadedFile = cacheFile.get(Hint.none());
+        List<Record> records;
+        try {
+            records = loadedFile.read();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read cache file: {}", loadedFile, e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long nanoTime = System.nanoTime();
+        for (Record record : records) {
+            Category category = getCategory(record.getCategory());
+            if (category != null && category.persistent) {
+                long expires = nanoTime + TimeUnit.MILLISECONDS.toNanos(record.getExpires() - now);
+                Object value;
+                if (category == Category.ISSUES) {
+                    value = CompactFields.of(new JSONObject(record.getValue()));
+                } else if (category == Category.SNAPSHOTS) {
+                    value = Snapshot.parse(record.getValue());
+                } else if (category == Category.RESPONSES) {
+                    value = CachedResponse.parse(record.getValue());
+                } else {
+                    value = record.getValue();
+                }
+                put(category, record.getKey(), value, expires);
+            }
+        }
+        LOGGER.debug("Loaded {} cache entries from {}", records.size(), loadedFile);
+    }
+
+    private static Category getCategory(String name) {
+        for (Category category : Category.values()) {
+            if (category.getName().equals(name)) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the persistent entries to the cache file, if any
+     */
+    public synchronized void save() {
+        if (loadedFile == null) {
+            return;
+        }
+        List<Record> records = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        long nanoTime = System.nanoTime();
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            Key key = entry.getKey();
+            long remaining = entry.getValue().expires - nanoTime;
+            if (key.category.persistent && remaining > 0 && key.key.length() <= MAX_PERSISTENT_KEY_LENGTH
+                    && !(key.category == Category.RESPONSES && ISSUE_LIST.matcher(key.key).matches())) {
+                String value = entry.getValue().value.toString();
+                long expires = now + TimeUnit.NANOSECONDS.toMillis(remaining);
+                records.add(new Record(key.category.getName(), key.key, value, expires));
+            }
+        }
+        try {
+            loadedFile.write(records);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not write cache file: {}", loadedFile, e);
+        }
+    }
+
+    private synchronized Object get(Category category, String key) {
+        load();
+        Key k = new Key(category, key);
+        Entry entry = entries.get(k);
+        if (entry == null) {
+            return null;
+        } else if (System.nanoTime() - entry.expires > 0) {
+            if (!(entry.value instanceof CachedResponse && ((CachedResponse) entry.value).hasValidators())) {
+                // keep responses that can be revalidated, see getExpiredResponse
+                remove(k, entry);
+            }
+            ++counters.get(category).expirations;
+            return null;
+        } else {
+            return entry.value;
+        }
+    }
+
+    private synchronized void put(Category category, String key, Object value) {
+        load();
+        put(category, key, value, System.nanoTime() + category.timeToLive);
+    }
+
+    private void put(Category category, String key, Object value, long expires) {
+        Key k = new Key(category, key);
+        Entry existing = entries.get(k);
+        if (existing != null) {
+            remove(k, existing);
+        }
+
+        long weight = getWeight(key) + getWeight(value);
+        if (weight > maxSize) {
+            // would evict everything else
+            return;
+        }
+
+        Set<String> issueKeys = getIssueKeys(category, key, value);
+        entries.put(k, new Entry(value, weight, expires, issueKeys));
+        size += weight;
+        counters.get(category).size += weight;
+        ++counters.get(category).entries;
+        for (String issueKey : issueKeys) {
+            Set<Key> keys = index.get(issueKey);
+            if (keys == null) {
+                keys = new HashSet<>();
+                index.put(issueKey, keys);
+            }
+            keys.add(k);
+        }
+
+        while (size > maxSize) {
+            Map.Entry<Key, Entry> eldest = entries.entrySet().iterator().next();
+            remove(eldest.getKey(), eldest.getValue());
+            ++counters.get(eldest.getKey().category).evictions;
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        size -= entry.weight;
+        Counters c = counters.get(key.category);
+        c.size -= entry.weight;
+        --c.entries;
+        for (String issueKey : entry.issueKeys) {
+            Set<Key> keys = index.get(issueKey);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    index.remove(issueKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries containing any of the given issues
+     */
+    public synchronized void invalidate(Collection<String> issueKeys) {
+        for (String issueKey : issueKeys) {
+            Set<Key> keys = index.get(issueKey);
+            if (keys != null) {
+                for (Key key : new ArrayList<>(keys)) {
+                    Entry entry = entries.get(key);
+                    if (entry != null) {
+                        remove(key, entry);
+                        ++counters.get(key.category).invalidations;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all lists of issues, for example search results
+     */
+    public synchronized void invalidateIssueLists() {
+        for (Map.Entry<Key, Entry> entry : new ArrayList<>(entries.entrySet())) {
+            Key key = entry.getKey();
+            if (key.category == Category.SEARCHES
+                    || (key.category == Category.RESPONSES && ISSUE_LIST.matcher(key.key).matches())) {
+                remove(key, entry.getValue());
+                ++counters.get(key.category).invalidations;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        index.clear();
+        size = 0;
+        for (Counters c : counters.values()) {
+            c.entries = 0;
+            c.size = 0;
+        }
     }
 
     @Override
-    public void clear() {
-        responseCache.clear();
-        issueListCache.clear();
-        fieldCache.clear();
-        workflowCache.clear();
-        fieldInfoCache = null;
+    public synchronized List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Category, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            long accesses = c.hits + c.misses;
+            String hitRatio = (accesses == 0 ? "-" : (100 * c.hits / accesses) + "%");
+            lines.add(entry.getKey().getName() + ": " + c.entries + " entries, " + toKilobytes(c.size) + " KB, "
+                    + c.hits + " hits, " + c.misses + " misses (" + hitRatio + "), " + c.evictions + " evicted, "
+                    + c.expirations + " expired, " + c.invalidations + " invalidated");
+        }
+        lines.add("Total: " + entries.size() + " entries, " + toKilobytes(size) + " KB of "
+                + toKilobytes(maxSize) + " KB");
+        return lines;
+    }
+
+    @Override
+    public synchronized List<String> getLargestEntries(int count) {
+        List<Map.Entry<Key, Entry>> sorted = new ArrayList<>(entries.entrySet());
+        Collections.sort(sorted, new Comparator<Map.Entry<Key, Entry>>() {
+            @Override
+            public int compare(Map.Entry<Key, Entry> e1, Map.Entry<Key, Entry> e2) {
+                return Long.compare(e2.getValue().weight, e1.getValue().weight);
+            }
+        });
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Key, Entry> entry : sorted.subList(0, Math.min(count, sorted.size()))) {
+            Key key = entry.getKey();
+            lines.add(toKilobytes(entry.getValue().weight) + " KB " + key.category.getName() + " "
+                    + StringUtils.shorten(key.key, MAX_DISPLAY_LENGTH));
+        }
+        return lines;
+    }
+
+    @Override
+    public synchronized int evict(String category, String keyPattern) {
+        Category c = null;
+        if (category != null) {
+            c = getCategory(category);
+            if (c == null) {
+                List<String> names = new ArrayList<>();
+                for (Category cat : Category.values()) {
+                    names.add(cat.getName());
+                }
+                throw new IllegalArgumentException("Unknown category: " + category + " (valid categories: "
+                        + StringUtils.join(names, ", ") + ")");
+            }
+        }
+        Pattern pattern = (keyPattern == null ? null : Pattern.compile(keyPattern));
+        int evicted = 0;
+        for (Map.Entry<Key, Entry> entry : new ArrayList<>(entries.entrySet())) {
+            Key key = entry.getKey();
+            if ((c == null || key.category == c) && (pattern == null || pattern.matcher(key.key).find())) {
+                remove(key, entry.getValue());
+                ++evicted;
+            }
+        }
+        return evicted;
+    }
+
+    private static long toKilobytes(long bytes) {
+        return (bytes + 1023) / 1024;
+    }
+
+    /**
+     * @return The keys of all issues contained in the given entry
+     */
+    static Set<String> getIssueKeys(Category category, String key, Object value) {
+        Set<String> issueKeys = new HashSet<>();
+        if (category == Category.SNAPSHOTS) {
+            // snapshots are kept up to date by only loading the issues updated since the snapshot was taken
+            return issueKeys;
+        } else if (category == Category.WORKFLOW_NAMES || category == Category.WORKFLOWS) {
+            // workflows don't belong to single issues
+            return issueKeys;
+        } else if (category == Category.ISSUES) {
+            issueKeys.add(key);
+        } else {
+            String path;
+            try {
+                path = URLDecoder.decode(key, "UTF-8");
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                path = key;
+            }
+            addIssueKeys(path, issueKeys);
+        }
+        if (value instanceof String) {
+            addIssueKeys((String) value, issueKeys);
+        } else if (value instanceof CachedResponse) {
+            addIssueKeys(((CachedResponse) value).getBody(), issueKeys);
+        } else {
+            addIssueKeys(value, issueKeys);
+        }
+        return issueKeys;
+    }
+
+    private static void addIssueKeys(String str, Set<String> issueKeys) {
+        Matcher matcher = ISSUE_KEY.matcher(str);
+        while (matcher.find()) {
+            issueKeys.add(matcher.group());
+        }
+    }
+
+    private static void addIssueKeys(Object value, Set<String> issueKeys) {
+        if (value instanceof CompactFields) {
+            addIssueKeys(((CompactFields) value).toJSONObject(), issueKeys);
+        } else if (value instanceof JSONObject) {
+            JSONObject json = (JSONObject) value;
+            for (String k : json.keySet()) {
+                Object obj = json.opt(k);
+                if (k.equals("key") && obj instanceof String) {
+                    issueKeys.add((String) obj);
+                } else {
+                    addIssueKeys(obj, issueKeys);
+                }
+            }
+        } else if (value instanceof JSONArray) {
+            for (Object obj : (JSONArray) value) {
+                addIssueKeys(obj, issueKeys);
+            }
+        }
+    }
+
+    /**
+     * @return The estimated number of bytes used by the given value
+     */
+    static long getWeight(Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            return 8;
+        } else if (value instanceof String) {
+            return 40 + 2 * ((String) value).length();
+        } else if (value instanceof CachedResponse) {
+            CachedResponse response = (CachedResponse) value;
+            return 32 + getWeight(response.getBody()) + getWeight(response.getEtag())
+                    + getWeight(response.getLastModified());
+        } else if (value instanceof JSONObject) {
+            JSONObject json = (JSONObject) value;
+            long weight = 64;
+            for (String key : json.keySet()) {
+                weight += 32 + getWeight(key) + getWeight(json.opt(key));
+            }
+            return weight;
+        } else if (value instanceof JSONArray) {
+            long weight = 48;
+            for (Object obj : (JSONArray) value) {
+                weight += 8 + getWeight(obj);
+            }
+            return weight;
+        } else if (value instanceof CompactFields) {
+            return ((CompactFields) value).getWeight();
+        } else if (value instanceof Snapshot) {
+            return ((Snapshot) value).getWeight();
+        } else if (value instanceof Map) {
+            // field infos
+            return 64 + 256 * ((Map<?, ?>) value).size();
+        } else if (value instanceof Workflow) {
+            List<?> transitions = ((Workflow) value).getTransitions();
+            return 64 + 256 * (transitions == null ? 0 : transitions.size());
+        } else {
+            return 16;
+        }
+    }
+
+    private static final class Key {
+        private final Category category;
+        private final String key;
+
+        public Key(Category category, String key) {
+            this.category = category;
+            this.key = key;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * category.hashCode() + key.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return category == other.category && key.equals(other.key);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long weight;
+        private final long expires;
+        private final Set<String> issueKeys;
+
+        public Entry(Object value, long weight, long expires, Set<String> issueKeys) {
+            this.value = value;
+            this.weight = weight;
+            this.expires = expires;
+            this.issueKeys = issueKeys;
+        }
+    }
+
+    private static final class Counters {
+        private long entries;
+        private long size;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long expirations;
+        private long invalidations;
     }
 }
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Supplier;
+
+/**
+ * Caches shared by all web services of this process, for example of multiple console windows, by server and user
+ */
+final class CacheRegistry {
+    private static final Map<String, Registration> REGISTRATIONS = new HashMap<>();
+
+    private CacheRegistry() {
+        // only static methods
+    }
+
+    /**
+     * @return The cache for the given server and user, which must be released by calling {@link #release(CacheImpl)}
+     */
+    public static synchronized CacheImpl acquire(final String baseUrl, final String username, boolean persistent) {
+        String key = username + "@" + baseUrl;
+        Registration registration = REGISTRATIONS.get(key);
+        if (registration == null) {
+            CacheImpl cache = new CacheImpl();
+            if (persistent) {
+                cache.setCacheFile(new Supplier<CacheFile>() {
+                    @Override
+                    public CacheFile get(Set<Hint> hints) {
+                        return CacheFile.forServer(baseUrl, username);
+                    }
+                });
+            }
+            registration = new Registration(key, cache);
+            REGISTRATIONS.put(key, registration);
+        }
+        ++registration.references;
+        return registration.cache;
+    }
+
+    /**
+     * Saves the entries of the given cache and clears it, if it is not used anymore
+     */
+    public static synchronized void release(CacheImpl cache) {
+        for (Registration registration : REGISTRATIONS.values()) {
+            if (registration.cache == cache) {
+                cache.save();
+                if (--registration.references == 0) {
+                    REGISTRATIONS.remove(registration.key);
+                    cache.clear();
+                }
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Cache not registered: " + cache);
+    }
+
+    private static final class Registration {
+        private final String key;
+        private final CacheImpl cache;
+
+        private int references;
+
+        public Registration(String key, CacheImpl cache) {
+            this.key = key;
+            this.cache = cache;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import org.json.JSONObject;
+
+/**
+ * The body of a response, together with the validators needed to check if it is still up to date
+ */
+final class CachedResponse {
+    private final String body;
+    private final String etag;
+    private final String lastModified;
+
+    /**
+     * @param etag The value of the <code>ETag</code> header or <code>null</code>
+     * @param lastModified The value of the <code>Last-Modified</code> header or <code>null</code>
+     */
+    public CachedResponse(String body, String etag, String lastModified) {
+        this.body = body;
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public static CachedResponse parse(String str) {
+        JSONObject json = new JSONObject(str);
+        String etag = (json.isNull("etag") ? null : json.getString("etag"));
+        String lastModified = (json.isNull("lastModified") ? null : json.getString("lastModified"));
+        return new CachedResponse(json.getString("body"), etag, lastModified);
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return <code>true</code> if the server can tell if the response has been modified
+     */
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    @Override
+    public String toString() {
+        JSONObject json = new JSONObject();
+        json.put("body", body);
+        json.put("etag", (etag == null ? JSONObject.NULL : etag));
+        json.put("lastModified", (lastModified == null ? JSONObject.NULL : lastModified));
+        return json.toString();
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Memory efficient representation of the fields of an issue.
+ * <p>
+ * Instances with the same field IDs share one array of IDs. Object and array values are stored as JSON text,
+ * which is only parsed again when the fields are converted back to a {@link JSONObject}. Values of fields like status,
+ * issue type or assignee are usually the same for many issues, so equal values of these fields are shared.
+ */
+final class CompactFields {
+    private static final Set<String> SHARED_FIELDS = new HashSet<>(Arrays.asList("status", "priority", "issuetype",
+            "resolution", "project", "assignee", "reporter", "creator", "components", "fixVersions", "versions",
+            "labels"));
+
+    private static final int MAX_SHARED_LENGTH = 1024;
+
+    /**
+     * Upper bound for the number of values that will be shared
+     */
+    private static final int MAX_SHARED_VALUES = 4096;
+
+    private static final Map<String, String> SHARED_VALUES = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_SHARED_VALUES;
+        }
+    };
+
+    /**
+     * Upper bound for the number of different field ID combinations that will be shared
+     */
+    private static final int MAX_SHAPES = 1024;
+
+    private static final Map<List<String>, String[]> SHAPES = new HashMap<>();
+
+    private final String[] ids;
+    private final Object[] values;
+    private final BitSet json;
+
+    private CompactFields(String[] ids, Object[] values, BitSet json) {
+        this.ids = ids;
+        this.values = values;
+        this.json = json;
+    }
+
+    public static CompactFields of(JSONObject fields) {
+        String[] ids = getShape(new TreeSet<>(fields.keySet()).toArray(new String[0]));
+        Object[] values = new Object[ids.length];
+        BitSet json = new BitSet();
+        for (int i = 0; i < ids.length; i++) {
+            Object value = fields.opt(ids[i]);
+            if (value == null || value == JSONObject.NULL) {
+                values[i] = null;
+            } else if (value instanceof JSONObject || value instanceof JSONArray) {
+                values[i] = share(ids[i], value.toString());
+                json.set(i);
+            } else if (value instanceof String) {
+                values[i] = share(ids[i], (String) value);
+            } else {
+                values[i] = value;
+            }
+        }
+        return new CompactFields(ids, values, json);
+    }
+
+    private static String[] getShape(String[] ids) {
+        List<String> key = Arrays.asList(ids);
+        synchronized (SHAPES) {
+            String[] shape = SHAPES.get(key);
+            if (shape == null) {
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = ids[i].intern();
+                }
+                if (SHAPES.size() < MAX_SHAPES) {
+                    SHAPES.put(key, ids);
+                }
+                shape = ids;
+            }
+            return shape;
+        }
+    }
+
+    private static String share(String id, String str) {
+        if (!SHARED_FIELDS.contains(id) || str.length() > MAX_SHARED_LENGTH) {
+            return str;
+        }
+        synchronized (SHARED_VALUES) {
+            String shared = SHARED_VALUES.get(str);
+            if (shared == null) {
+                SHARED_VALUES.put(str, str);
+                shared = str;
+            }
+            return shared;
+        }
+    }
+
+    public boolean has(String id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * @return The fields, with all entries of the given fields added that are not contained in these fields
+     */
+    public CompactFields merge(JSONObject source) {
+        JSONObject merged = null;
+        for (String id : source.keySet()) {
+            if (!has(id)) {
+                if (merged == null) {
+                    merged = toJSONObject();
+                }
+                merged.put(id, source.get(id));
+            }
+        }
+        return (merged == null ? this : of(merged));
+    }
+
+    public JSONObject toJSONObject() {
+        JSONObject result = new JSONObject();
+        for (int i = 0; i < ids.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                result.put(ids[i], JSONObject.NULL);
+            } else if (json.get(i)) {
+                String str = (String) value;
+                result.put(ids[i], str.startsWith("[") ? new JSONArray(str) : new JSONObject(str));
+            } else {
+                result.put(ids[i], value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The estimated number of bytes used by these fields, not counting shared IDs. Shared values are counted,
+     *         because they are only shared while other instances use them.
+     */
+    public long getWeight() {
+        long weight = 64 + 8 * values.length;
+        for (Object value : values) {
+            if (value instanceof String) {
+                weight += 40 + 2 * ((String) value).length();
+            } else if (value != null) {
+                weight += 16;
+            }
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return toJSONObject().toString();
+    }
+}
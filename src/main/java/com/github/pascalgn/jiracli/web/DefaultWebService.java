@@ -16,6 +16,7 @@
 package com.github.pascalgn.jiracli.web;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -24,11 +25,14 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -39,6 +43,12 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -73,9 +83,12 @@ import com.github.pascalgn.jiracli.util.Consumer;
 import com.github.pascalgn.jiracli.util.ConversionUtils;
 import com.github.pascalgn.jiracli.util.Function;
 import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.IOUtils;
 import com.github.pascalgn.jiracli.util.LoadingList;
+import com.github.pascalgn.jiracli.util.NamedThreadFactory;
 import com.github.pascalgn.jiracli.util.StringUtils;
 import com.github.pascalgn.jiracli.util.Supplier;
+import com.github.pascalgn.jiracli.web.CacheImpl.Category;
 import com.github.pascalgn.jiracli.web.HttpClient.NotAuthenticatedException;
 
 public class DefaultWebService implements WebService {
@@ -84,6 +97,58 @@ public class DefaultWebService implements WebService {
     private static final Request DEFAULT_REQUEST = new DefaultRequest("issuetype", "status", "summary");
     private static final Request ALL_FIELDS = new DefaultRequest(true);
 
+    /**
+     * Maximum number of pages of a search result that will be fetched concurrently
+     */
+    private static final int PREFETCH_PAGES = Integer.getInteger("jiracli.search.prefetch", 4);
+
+    /**
+     * Number of results per request, 0 to choose depending on the requested fields
+     */
+    private static final int PAGE_SIZE = Integer.getInteger("jiracli.search.pageSize", 0);
+
+    private static final int SMALL_PAGE_SIZE = 50;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int LARGE_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Pattern ORDER_BY = Pattern.compile("\\bORDER\\s+BY\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Paths to request all values of the system fields which have a fixed set of values
+     */
+    private static final Map<String, String> FIELD_VALUES;
+
+    static {
+        Map<String, String> fieldValues = new HashMap<>();
+        fieldValues.put("status", "/rest/api/latest/status");
+        fieldValues.put("priority", "/rest/api/latest/priority");
+        fieldValues.put("resolution", "/rest/api/latest/resolution");
+        fieldValues.put("issuetype", "/rest/api/latest/issuetype");
+        FIELD_VALUES = Collections.unmodifiableMap(fieldValues);
+    }
+
+    /**
+     * Maximum number of requested fields for which large pages will be used
+     */
+    private static final int FEW_FIELDS = 5;
+
+    /**
+     * File to which the request statistics will be written when closing
+     */
+    private static final String STATISTICS_FILE = System.getProperty("jiracli.stats.file");
+
+    /**
+     * If cache entries should be kept on disk, so that they can be used by the next instance
+     */
+    private static final boolean PERSISTENT_CACHE = Boolean.getBoolean("jiracli.cache.persistent");
+
+    /**
+     * If expired responses should be revalidated using the ETag and Last-Modified headers, instead of being
+     * loaded again
+     */
+    private static final boolean REVALIDATE = Boolean.getBoolean("jiracli.cache.revalidate");
+
     private static final Function<Reader, JSONObject> TO_OBJECT = new Function<Reader, JSONObject>() {
         @Override
         public JSONObject apply(Reader reader, Set<Hint> hints) {
@@ -99,13 +164,25 @@ public class DefaultWebService implements WebService {
     };
 
     private final HttpClient httpClient;
-    private final CacheImpl cache;
     private final Schema schema;
+    private final ExecutorService executor;
+    private final Page.Streams streams;
+
+    private final SingleFlight<String> responses;
+    private final SingleFlight<String> workflowNames;
+
+    private CacheImpl cache;
+    private String cacheBaseUrl;
+    private String cacheUsername;
+    private boolean closed;
 
     public DefaultWebService(Console console) {
         this.httpClient = new HttpClient(console);
-        this.cache = new CacheImpl();
         this.schema = new CachedSchema();
+        this.executor = Executors.newCachedThreadPool(new NamedThreadFactory("WebService"));
+        this.streams = new Page.Streams();
+        this.responses = new SingleFlight<>();
+        this.workflowNames = new SingleFlight<>();
     }
 
     @Override
@@ -177,12 +254,15 @@ public class DefaultWebService implements WebService {
     }
 
     private void cacheFields(String key, JSONObject fields) {
-        JSONObject cached = cache.getFields(key);
+        CompactFields cached = cache().getFields(key);
         if (cached == null) {
             // at least note that it is a valid issue!
-            cache.putFields(key, (fields == null ? new JSONObject() : fields));
+            cache().putFields(key, CompactFields.of(fields == null ? new JSONObject() : fields));
         } else if (fields != null) {
-            mergeEntries(fields, cached);
+            CompactFields merged = cached.merge(fields);
+            if (merged != cached) {
+                cache().putFields(key, merged);
+            }
         }
     }
 
@@ -243,14 +323,14 @@ public class DefaultWebService implements WebService {
             return Collections.emptyList();
         } else if (keys.size() == 1) {
             String key = keys.get(0);
-            JSONObject fieldJson = cache.getFields(key);
-            if (fieldJson == null) {
+            CompactFields cached = recordCacheAccess(Category.ISSUES, cache().getFields(key));
+            if (cached == null) {
                 // ignore initialFields, loadIssue will fetch all fields
                 Issue issue = loadIssue(key);
                 return Collections.singletonList(issue);
             } else {
                 // don't check for loaded fields, we will fetch them later, if necessary
-                Issue issue = toIssue(key, fieldJson);
+                Issue issue = toIssue(key, cached.toJSONObject());
                 return Collections.singletonList(issue);
             }
         } else {
@@ -262,18 +342,18 @@ public class DefaultWebService implements WebService {
             Iterator<String> it = resolve.iterator();
             while (it.hasNext()) {
                 String key = it.next();
-                JSONObject fieldJson = cache.getFields(key);
-                if (fieldJson != null) {
+                CompactFields cached = cache().getFields(key);
+                if (cached != null) {
                     for (String field : fields) {
-                        if (!fieldJson.has(field)) {
+                        if (!cached.has(field)) {
                             // we should fetch this issue again, to get the missing field(s)
-                            fieldJson = null;
+                            cached = null;
                             break;
                         }
                     }
                 }
-                if (fieldJson != null) {
-                    Issue issue = toIssue(key, fieldJson);
+                if (recordCacheAccess(Category.ISSUES, cached) != null) {
+                    Issue issue = toIssue(key, cached.toJSONObject());
                     resolved.put(key, issue);
                     it.remove();
                 }
@@ -284,41 +364,48 @@ public class DefaultWebService implements WebService {
                 return new ArrayList<>(resolved.values());
             }
 
-            List<Issue> result = new ArrayList<>();
-
             // key order doesn't matter when searching but improves caching:
-            List<Issue> searchResults = loadIssues(new TreeSet<>(resolve), request);
+            Map<String, Issue> searchResults = loadIssues(new TreeSet<>(resolve), request);
 
             // return the search results in the order the keys were given:
-            Set<String> set = new LinkedHashSet<>(keys);
-            for (String key : set) {
+            List<Issue> result = new ArrayList<>();
+            List<String> missing = new ArrayList<>();
+            for (String key : new LinkedHashSet<>(keys)) {
                 Issue found = resolved.get(key);
                 if (found == null) {
-                    for (Issue issue : searchResults) {
-                        if (issue.getKey().equals(key)) {
-                            found = issue;
-                            break;
-                        }
-                    }
+                    found = searchResults.get(key);
                 }
                 if (found == null) {
-                    throw new IllegalArgumentException("Issue not found: " + key);
+                    missing.add(key);
+                } else {
+                    result.add(found);
                 }
-                result.add(found);
+            }
+
+            if (missing.size() == 1) {
+                throw new IllegalArgumentException("Issue not found: " + missing.get(0));
+            } else if (!missing.isEmpty()) {
+                throw new IllegalArgumentException("Issues not found: " + StringUtils.join(missing, ", "));
             }
 
             return result;
         }
     }
 
-    private List<Issue> loadIssues(Collection<String> keys, Request request) {
+    private Map<String, Issue> loadIssues(Collection<String> keys, final Request request) {
         if (keys.isEmpty()) {
-            return Collections.emptyList();
+            return Collections.emptyMap();
         } else if (keys.size() == 1) {
             String key = keys.iterator().next();
-            return Collections.singletonList(loadIssue(key));
+            return Collections.singletonMap(key, loadIssue(key));
         } else {
-            return searchIssues("key IN (" + StringUtils.join(keys, ",") + ")", request);
+            IssueResolver resolver = new IssueResolver(executor) {
+                @Override
+                protected List<Issue> search(String jql) {
+                    return searchIssues(jql, request);
+                }
+            };
+            return resolver.resolve(keys);
         }
     }
 
@@ -403,6 +490,135 @@ public class DefaultWebService implements WebService {
         return new IssueList(path, "issues", request);
     }
 
+    @Override
+    public List<Issue> syncIssues(String jql, Request request) {
+        String fieldParam = getFieldParam(request, filterFields(request));
+        long started = System.currentTimeMillis();
+
+        Map<String, CompactFields> issues = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        Set<String> updated = new HashSet<>();
+
+        Snapshot snapshot = recordCacheAccess(Category.SNAPSHOTS, cache().getSnapshot(jql));
+        if (snapshot != null) {
+            // keep the fields of both requests, so that alternating requests will not discard the snapshot:
+            if (containsFields(snapshot.getFields(), fieldParam)) {
+                fieldParam = snapshot.getFields();
+            } else {
+                fieldParam = joinFields(snapshot.getFields(), fieldParam);
+                snapshot = null;
+            }
+        }
+
+        if (snapshot == null) {
+            for (JSONObject issue : searchAll(jql, fieldParam, getPageSize(request))) {
+                String key = issue.getString("key");
+                keys.add(key);
+                issues.put(key, CompactFields.of(issue.getJSONObject("fields")));
+                updated.add(key);
+            }
+        } else {
+            issues.putAll(snapshot.getIssues());
+
+            // the matching issues can change without being updated, for example for "created >= -1d":
+            for (JSONObject issue : searchAll(jql, "key", MAX_PAGE_SIZE)) {
+                keys.add(issue.getString("key"));
+            }
+
+            // JQL dates have a resolution of minutes, so also include the minute of the last synchronization:
+            long minutes = TimeUnit.MILLISECONDS.toMinutes(started - snapshot.getUpdated()) + 2;
+            String query = jql.trim();
+            Matcher matcher = ORDER_BY.matcher(StringUtils.maskQuoted(query));
+            if (matcher.find()) {
+                query = query.substring(0, matcher.start()).trim();
+            }
+            String delta = (query.isEmpty() ? "" : "(" + query + ") AND ") + "updated >= -" + minutes + "m";
+            for (JSONObject issue : searchAll(delta, fieldParam, getPageSize(request))) {
+                String key = issue.getString("key");
+                JSONObject fields = issue.getJSONObject("fields");
+                CompactFields previous = issues.get(key);
+                if (previous != null) {
+                    mergeEntries(previous.toJSONObject(), fields);
+                }
+                issues.put(key, CompactFields.of(fields));
+                updated.add(key);
+            }
+
+            Set<String> missing = new TreeSet<>(keys);
+            missing.removeAll(issues.keySet());
+            for (List<String> chunk : IssueResolver.chunks(missing, IssueResolver.MAX_LENGTH)) {
+                String search = "key IN (" + StringUtils.join(chunk, ",") + ")";
+                for (JSONObject issue : searchAll(search, fieldParam, getPageSize(request))) {
+                    String key = issue.getString("key");
+                    issues.put(key, CompactFields.of(issue.getJSONObject("fields")));
+                    updated.add(key);
+                }
+            }
+        }
+
+        // cached values of the updated issues are outdated now:
+        cache().invalidate(updated);
+
+        Map<String, CompactFields> snapshotIssues = new LinkedHashMap<>();
+        List<Issue> result = new ArrayList<>();
+        for (String key : keys) {
+            CompactFields fields = issues.get(key);
+            if (fields != null) {
+                snapshotIssues.put(key, fields);
+                result.add(toIssue(key, fields.toJSONObject()));
+            }
+        }
+        cache().putSnapshot(jql, new Snapshot(started, fieldParam, snapshotIssues));
+
+        LOGGER.debug("Synchronized {} issues, {} updated: {}", result.size(), updated.size(), jql);
+        return result;
+    }
+
+    private static String joinFields(String fieldParam1, String fieldParam2) {
+        if (fieldParam1.equals("*all") || fieldParam2.equals("*all")) {
+            return "*all";
+        }
+        Set<String> fields = new TreeSet<>(Arrays.asList(fieldParam1.split(",")));
+        fields.addAll(Arrays.asList(fieldParam2.split(",")));
+        return StringUtils.join(fields, ",");
+    }
+
+    private static boolean containsFields(String fieldParam, String requested) {
+        if (fieldParam.equals("*all")) {
+            return true;
+        }
+        List<String> fields = Arrays.asList(fieldParam.split(","));
+        return fields.containsAll(Arrays.asList(requested.split(",")));
+    }
+
+    /**
+     * Loads all pages of the search results, without using the cache
+     */
+    private List<JSONObject> searchAll(String jql, String fieldParam, int pageSize) {
+        String path = "/rest/api/latest/search?jql=" + urlEncode(jql) + "&fields=" + urlEncode(fieldParam);
+        List<JSONObject> issues = new ArrayList<>();
+        int total;
+        do {
+            String p = addParam(addParam(path, "startAt", issues.size()), "maxResults", pageSize);
+            JSONObject response = new JSONObject(httpClient.get(p));
+            JSONArray array = response.getJSONArray("issues");
+            for (Object obj : array) {
+                issues.add((JSONObject) obj);
+            }
+            total = response.getInt("total");
+            if (array.length() == 0) {
+                break;
+            }
+        } while (issues.size() < total);
+        return issues;
+    }
+
+    @Override
+    public int countIssues(String jql) {
+        String path = "/rest/api/latest/search?jql=" + urlEncode(jql.trim()) + "&maxResults=0";
+        return get(path, TO_OBJECT).getInt("total");
+    }
+
     @Override
     public Issue getParent(Issue issue, Request request) {
         Field field = issue.getFieldMap().getFieldById("parent");
@@ -418,39 +634,65 @@ public class DefaultWebService implements WebService {
     }
 
     @Override
-    public Workflow getWorkflow(final Issue issue) {
-        Workflow workflow = cache.getWorkflow(issue.getKey());
+    public Workflow getWorkflow(Issue issue) {
+        String workflowName = getWorkflowName(issue);
+        Workflow workflow = recordCacheAccess(Category.WORKFLOWS, cache().getWorkflow(workflowName));
         if (workflow == null) {
-            // There is no REST API to get the workflow name, so we need to parse the HTML:
-            String workflowName = httpClient.get("/browse/" + issue.getKey(), new Function<Reader, String>() {
-                @Override
-                public String apply(Reader reader, Set<Hint> hints) {
-                    try (BufferedReader bufferedReader = new BufferedReader(reader)) {
-                        String line;
-                        while ((line = bufferedReader.readLine()) != null) {
-                            String workflowName = WorkflowHelper.getWorkflowName(line);
-                            if (workflowName != null) {
-                                return workflowName;
-                            }
-                        }
-                    } catch (IOException e) {
-                        throw new IllegalStateException(e);
-                    }
-                    String message = "Could not parse workflow name for issue: " + issue;
-                    throw new NotAuthenticatedException(new IllegalStateException(message));
-                }
-            });
-
             String path = "/rest/workflowDesigner/latest/workflows?name=" + urlEncode(workflowName);
             JSONObject response = get(path, TO_OBJECT);
 
             workflow = WorkflowHelper.parseWorkflow(workflowName, response);
 
-            cache.putWorkflow(issue.getKey(), workflow);
+            cache().putWorkflow(workflowName, workflow);
         }
         return workflow;
     }
 
+    /**
+     * The workflow only depends on the project and the issue type, so the issue page will only be parsed once
+     * for every combination
+     */
+    private String getWorkflowName(final Issue issue) {
+        final String workflowKey = WorkflowHelper.getWorkflowKey(issue);
+        String workflowName = recordCacheAccess(Category.WORKFLOW_NAMES, cache().getWorkflowName(workflowKey));
+        if (workflowName == null) {
+            workflowName = workflowNames.get(workflowKey, new Callable<String>() {
+                @Override
+                public String call() {
+                    String cached = cache().getWorkflowName(workflowKey);
+                    if (cached == null) {
+                        cached = parseWorkflowName(issue);
+                        cache().putWorkflowName(workflowKey, cached);
+                    }
+                    return cached;
+                }
+            });
+        }
+        return workflowName;
+    }
+
+    private String parseWorkflowName(final Issue issue) {
+        // There is no REST API to get the workflow name, so we need to parse the HTML:
+        return httpClient.get("/browse/" + issue.getKey(), new Function<Reader, String>() {
+            @Override
+            public String apply(Reader reader, Set<Hint> hints) {
+                try (BufferedReader bufferedReader = new BufferedReader(reader)) {
+                    String line;
+                    while ((line = bufferedReader.readLine()) != null) {
+                        String workflowName = WorkflowHelper.getWorkflowName(line);
+                        if (workflowName != null) {
+                            return workflowName;
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                String message = "Could not parse workflow name for issue: " + issue;
+                throw new NotAuthenticatedException(new IllegalStateException(message));
+            }
+        });
+    }
+
     @Override
     public List<Attachment> getAttachments(Issue issue) {
         Field field = issue.getFieldMap().getFieldById("attachment");
@@ -566,7 +808,7 @@ public class DefaultWebService implements WebService {
             JSONObject request = new JSONObject();
             request.put("update", update);
             String path = "/rest/api/latest/issue/" + issue.getKey() + "?notifyUsers=" + notifyUsers;
-            String response = put(path, request.toString());
+            String response = put(path, request.toString(), Collections.singleton(issue.getKey()));
             checkResponseEmpty(response);
         }
     }
@@ -575,13 +817,14 @@ public class DefaultWebService implements WebService {
     public void addComment(Issue issue, String comment) {
         String path = "/rest/api/latest/issue/" + issue.getKey() + "/comment";
         JSONObject request = new JSONObject().put("body", comment);
-        post(path, request.toString());
+        post(path, request.toString(), Collections.singleton(issue.getKey()));
     }
 
     @Override
     public void transitionIssue(Issue issue, Transition transition) {
         JSONObject request = new JSONObject().put("transition", new JSONObject().put("id", transition.getId()));
-        String response = post("/rest/api/latest/issue/" + issue.getKey() + "/transitions", request.toString());
+        String path = "/rest/api/latest/issue/" + issue.getKey() + "/transitions";
+        String response = post(path, request.toString(), Collections.singleton(issue.getKey()));
         checkResponseEmpty(response);
     }
 
@@ -592,13 +835,15 @@ public class DefaultWebService implements WebService {
         }
         Issue first = issues.get(0);
         JSONArray issueArr = new JSONArray();
+        List<String> keys = new ArrayList<>();
         for (Issue issue : issues) {
             issueArr.put(issue.getKey());
+            keys.add(issue.getKey());
         }
         JSONObject request = new JSONObject();
         request.put("issues", issueArr);
         request.put("rankBeforeIssue", first.getKey());
-        String response = put("/rest/agile/latest/issue/rank", request.toString());
+        String response = put("/rest/agile/latest/issue/rank", request.toString(), keys);
         checkResponseEmpty(response);
     }
 
@@ -608,19 +853,21 @@ public class DefaultWebService implements WebService {
         request.put("type", new JSONObject().put("name", name));
         request.put("inwardIssue", new JSONObject().put("key", inward.getKey()));
         request.put("outwardIssue", new JSONObject().put("key", outward.getKey()));
-        String response = post("/rest/api/latest/issueLink", request.toString());
+        List<String> keys = Arrays.asList(inward.getKey(), outward.getKey());
+        String response = post("/rest/api/latest/issueLink", request.toString(), keys);
         checkResponseEmpty(response);
     }
 
     @Override
     public void removeLink(Issue inward, Issue outward, String name) {
+        List<String> keys = Arrays.asList(inward.getKey(), outward.getKey());
         Integer forward = findIssueLink(inward, "outwardIssue", outward.getKey(), name);
         if (forward != null) {
-            removeLink(forward);
+            removeLink(forward, keys);
         }
         Integer backward = findIssueLink(outward, "inwardIssue", inward.getKey(), name);
         if (backward != null) {
-            removeLink(backward);
+            removeLink(backward, keys);
         }
         if (forward == null && backward == null) {
             throw new IllegalArgumentException("No link between " + inward.getKey()
@@ -628,8 +875,8 @@ public class DefaultWebService implements WebService {
         }
     }
 
-    private void removeLink(int id) {
-        String response = delete("/rest/api/latest/issueLink/" + id);
+    private void removeLink(int id, Collection<String> keys) {
+        String response = delete("/rest/api/latest/issueLink/" + id, keys);
         checkResponseEmpty(response);
     }
 
@@ -664,6 +911,21 @@ public class DefaultWebService implements WebService {
         return toStatus(response);
     }
 
+    @Override
+    public List<String> getFieldValues(String field) {
+        String path = FIELD_VALUES.get(field);
+        if (path == null) {
+            return null;
+        }
+        JSONArray array = get(path, TO_ARRAY);
+        List<String> names = new ArrayList<>();
+        for (Object obj : array) {
+            JSONObject json = (JSONObject) obj;
+            names.add(json.getString("name"));
+        }
+        return names;
+    }
+
     private static Status toStatus(JSONObject json) {
         int id = json.getInt("id");
         String name = json.getString("name");
@@ -679,7 +941,7 @@ public class DefaultWebService implements WebService {
     @Override
     public List<Project> getProjects() {
         String path = "/rest/api/latest/project";
-        String cached = cache.getResponse(path);
+        String cached = recordCacheAccess(Category.RESPONSES, cache().getResponse(path));
 
         JSONArray response;
         if (cached == null) {
@@ -693,7 +955,7 @@ public class DefaultWebService implements WebService {
                     return array;
                 }
             });
-            cache.putResponse(path, response.toString());
+            cache().putResponse(path, response.toString());
         } else {
             response = new JSONArray(cached);
         }
@@ -762,7 +1024,7 @@ public class DefaultWebService implements WebService {
             }
         });
 
-        cache.putResponse(path, response.toString());
+        cache().putResponse(path, response.toString());
 
         JSONArray projectArr = response.getJSONArray("projects");
         for (Object projectObj : projectArr) {
@@ -810,7 +1072,7 @@ public class DefaultWebService implements WebService {
         if (name != null) {
             path += "?name=" + urlEncode(name);
         }
-        return new PaginationList<>(path, "values", new Function<JSONObject, Board>() {
+        return new PaginationList<>(path, getPageSize(), "values", new Function<JSONObject, Board>() {
             @Override
             public Board apply(JSONObject json, Set<Hint> hints) {
                 return toBoard(json);
@@ -860,7 +1122,7 @@ public class DefaultWebService implements WebService {
     @Override
     public List<Sprint> getSprints(final Board board) {
         String path = "/rest/agile/latest/board/" + board.getId() + "/sprint";
-        return new PaginationList<>(path, "values", new Function<JSONObject, Sprint>() {
+        return new PaginationList<>(path, getPageSize(), "values", new Function<JSONObject, Sprint>() {
             @Override
             public Sprint apply(JSONObject json, Set<Hint> hints) {
                 return toSprint(json);
@@ -921,7 +1183,13 @@ public class DefaultWebService implements WebService {
         String request = new JSONObject().put("issueUpdates", issueUpdates).toString();
         LOGGER.debug("Request: {}", request);
 
-        String response = post("/rest/api/latest/issue/bulk", request);
+        String response;
+        try {
+            response = httpClient.post("/rest/api/latest/issue/bulk", request);
+        } finally {
+            // the new issues might be contained in any search result:
+            cache().invalidateIssueLists();
+        }
 
         JSONObject responseObj = new JSONObject(response);
         JSONArray issueArr = responseObj.getJSONArray("issues");
@@ -942,13 +1210,36 @@ public class DefaultWebService implements WebService {
         }
     }
 
-    private synchronized JSONObject get(String path, String issuesField, Request request) {
+    private JSONObject get(String path, String issuesField, Request request) {
         Collection<String> fields = filterFields(request);
+        JSONObject cached = getCached(path, issuesField, request, fields);
+        if (cached == null) {
+            String p = addParams(path, request, fields);
+            JSONObject result = get(p, TO_OBJECT);
+            synchronized (cache()) {
+                cacheResults(path, issuesField, fields, cache().getIssues(path), result);
+            }
+            return result;
+        } else {
+            return cached;
+        }
+    }
+
+    /**
+     * @return The cached response containing all requested fields or <code>null</code>
+     */
+    private JSONObject getCached(String path, String issuesField, Request request, Collection<String> fields) {
+        synchronized (cache()) {
+            return recordCacheAccess(Category.SEARCHES, findCached(path, issuesField, request, fields));
+        }
+    }
+
+    private JSONObject findCached(String path, String issuesField, Request request, Collection<String> fields) {
         String p = addParams(path, request, fields);
-        String cached = cache.getResponse(p);
+        String cached = cache().getResponse(p);
         if (cached == null) {
             // find a cached response for any fields:
-            JSONObject cachedJson = cache.getIssues(path);
+            JSONObject cachedJson = cache().getIssues(path);
             if (cachedJson != null && !request.getAllFields()) {
                 Object issues = (issuesField.isEmpty() ? cachedJson : cachedJson.get(issuesField));
                 boolean fieldsCached = checkFieldsCached(issues, fields);
@@ -957,9 +1248,7 @@ public class DefaultWebService implements WebService {
                     return cachedJson;
                 }
             }
-            JSONObject result = get(p, TO_OBJECT);
-            cacheResults(path, issuesField, fields, cachedJson, result);
-            return result;
+            return null;
         } else {
             JSONObject result;
             try (StringReader reader = new StringReader(cached)) {
@@ -977,23 +1266,21 @@ public class DefaultWebService implements WebService {
         // Mark fields that have been requested, but not returned, as null, because otherwise,
         // all issue fields would be fetched the next time to make sure the field isn't there
         addMissingFields(source, fields);
-        if (cached == null) {
-            cache.putIssues(path, result);
-        } else {
-            // merge the missing fields with the fields of the cache entry:
+        if (cached != null) {
+            // keep the fields that are only in the cache entry. The entry is replaced instead of modified,
+            // because it might be read by other threads, which don't hold the lock:
             Object target = (issuesField.isEmpty() ? cached : cached.get(issuesField));
             if (source instanceof JSONObject) {
-                JSONObject json = (JSONObject) source;
-                mergeFields(json, target);
+                addCachedFields((JSONObject) source, target);
             } else if (source instanceof JSONArray) {
                 for (Object obj : (JSONArray) source) {
-                    JSONObject json = (JSONObject) obj;
-                    mergeFields(json, target);
+                    addCachedFields((JSONObject) obj, target);
                 }
             } else {
                 throw new IllegalStateException("Invalid response: " + path + ": " + source);
             }
         }
+        cache().putIssues(path, result);
     }
 
     private Collection<String> filterFields(Request request) {
@@ -1013,6 +1300,10 @@ public class DefaultWebService implements WebService {
     }
 
     private String addParams(String path, Request request, Collection<String> fields) {
+        return addParam(path, "fields", getFieldParam(request, fields));
+    }
+
+    private static String getFieldParam(Request request, Collection<String> fields) {
         String fieldParam;
         if (request.getAllFields() || request.getFields().contains("*")) {
             fieldParam = "*all";
@@ -1035,7 +1326,7 @@ public class DefaultWebService implements WebService {
                 fieldParam = str.toString();
             }
         }
-        return addParam(path, "fields", fieldParam);
+        return fieldParam;
     }
 
     private static boolean checkFieldsCached(Object issues, Collection<String> fields) {
@@ -1087,22 +1378,23 @@ public class DefaultWebService implements WebService {
         }
     }
 
-    private static void mergeFields(JSONObject source, Object target) {
-        JSONObject sourceFields = source.getJSONObject("fields");
-        if (target instanceof JSONObject) {
-            JSONObject targetFields = ((JSONObject) target).getJSONObject("fields");
-            mergeEntries(sourceFields, targetFields);
-        } else if (target instanceof JSONArray) {
-            String sourceKey = source.getString("key");
-            for (Object targetIssueObj : (JSONArray) target) {
-                JSONObject targetIssue = (JSONObject) targetIssueObj;
-                if (sourceKey.equals(targetIssue.get("key"))) {
-                    JSONObject targetFields = targetIssue.getJSONObject("fields");
-                    mergeEntries(sourceFields, targetFields);
+    /**
+     * Adds the fields of the matching cached issue, which are missing in the given issue
+     */
+    private static void addCachedFields(JSONObject issue, Object cached) {
+        JSONObject fields = issue.getJSONObject("fields");
+        if (cached instanceof JSONObject) {
+            mergeEntries(((JSONObject) cached).getJSONObject("fields"), fields);
+        } else if (cached instanceof JSONArray) {
+            String key = issue.getString("key");
+            for (Object obj : (JSONArray) cached) {
+                JSONObject cachedIssue = (JSONObject) obj;
+                if (key.equals(cachedIssue.get("key"))) {
+                    mergeEntries(cachedIssue.getJSONObject("fields"), fields);
                 }
             }
         } else {
-            throw new IllegalStateException("Invalid object: " + target);
+            throw new IllegalStateException("Invalid object: " + cached);
         }
     }
 
@@ -1114,68 +1406,213 @@ public class DefaultWebService implements WebService {
         }
     }
 
-    private synchronized <T> T get(String path, Function<Reader, T> function) {
-        String response = cache.getResponse(path);
-        boolean cacheResponse = false;
+    private <T> T get(final String path, final Function<Reader, T> function) {
+        String response = recordCacheAccess(Category.RESPONSES, cache().getResponse(path));
         if (response == null) {
-            response = httpClient.get(path);
-            cacheResponse = true;
+            // only set when this thread did the request:
+            final List<T> converted = new ArrayList<>(1);
+            response = responses.get(path, new Callable<String>() {
+                @Override
+                public String call() {
+                    String cached = cache().getResponse(path);
+                    if (cached != null) {
+                        // another request for the same path has just finished
+                        return cached;
+                    }
+                    CachedResponse response = fetch(path);
+                    converted.add(convert(response.getBody(), function));
+                    // response could be converted, so it's probably safe to cache now:
+                    cache().putResponse(path, response);
+                    return response.getBody();
+                }
+            });
+            if (!converted.isEmpty()) {
+                return converted.get(0);
+            }
         }
-        T result;
-        try (StringReader reader = new StringReader(response)) {
-            result = function.apply(reader, Hint.none());
+        return convert(response, function);
+    }
+
+    private CachedResponse fetch(String path) {
+        if (REVALIDATE) {
+            CachedResponse expired = cache().getExpiredResponse(path);
+            CachedResponse response = httpClient.get(path, expired);
+            if (expired != null && expired.hasValidators()) {
+                httpClient.getMetrics().cacheAccess("revalidations", response == null);
+            }
+            return (response == null ? expired : response);
+        } else {
+            return new CachedResponse(httpClient.get(path), null, null);
         }
-        if (cacheResponse) {
-            // response could be converted, so it's probably safe to cache now:
-            cache.putResponse(path, response);
+    }
+
+    private static <T> T convert(String response, Function<Reader, T> function) {
+        try (StringReader reader = new StringReader(response)) {
+            return function.apply(reader, Hint.none());
         }
-        return result;
     }
 
-    private String post(String path, String body) {
-        clearCache();
-        return httpClient.post(path, body);
+    private <T> T recordCacheAccess(Category category, T cached) {
+        httpClient.getMetrics().cacheAccess(category.getName(), cached != null);
+        return cache().record(category, cached);
     }
 
-    private String put(String path, String body) {
-        clearCache();
-        return httpClient.put(path, body);
+    /**
+     * @param keys The issues which will be changed by the request
+     */
+    private String post(String path, String body, Collection<String> keys) {
+        try {
+            return httpClient.post(path, body);
+        } finally {
+            cache().invalidate(keys);
+        }
     }
 
-    private String delete(String path) {
-        clearCache();
-        return httpClient.delete(path);
+    /**
+     * @param keys The issues which will be changed by the request
+     */
+    private String put(String path, String body, Collection<String> keys) {
+        try {
+            return httpClient.put(path, body);
+        } finally {
+            cache().invalidate(keys);
+        }
     }
 
-    private void clearCache() {
-        cache.clear();
+    /**
+     * @param keys The issues which will be changed by the request
+     */
+    private String delete(String path, Collection<String> keys) {
+        try {
+            return httpClient.delete(path);
+        } finally {
+            cache().invalidate(keys);
+        }
+    }
+
+    /**
+     * The cache is shared with all other instances for the same server and user. The user is only known after the
+     * server has requested credentials and may change when other credentials are provided, so the cache is
+     * determined whenever it is used.
+     */
+    private CacheImpl cache() {
+        String baseUrl = httpClient.getBaseUrl();
+        String username = httpClient.getUsername();
+        CacheImpl previous = null;
+        CacheImpl c;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("The web service has been closed!");
+            }
+            if (cache == null || !baseUrl.equals(cacheBaseUrl) || !username.equals(cacheUsername)) {
+                previous = cache;
+                cache = CacheRegistry.acquire(baseUrl, username, PERSISTENT_CACHE);
+                cacheBaseUrl = baseUrl;
+                cacheUsername = username;
+            }
+            c = cache;
+        }
+        if (previous != null) {
+            CacheRegistry.release(previous);
+        }
+        return c;
+    }
+
+    private void releaseCache() {
+        CacheImpl c;
+        synchronized (this) {
+            closed = true;
+            c = cache;
+            cache = null;
+        }
+        if (c != null) {
+            CacheRegistry.release(c);
+        }
     }
 
     @Override
     public WebService.Cache getCache() {
-        return cache;
+        return cache();
+    }
+
+    @Override
+    public Statistics getStatistics() {
+        return httpClient.getMetrics();
     }
 
     @Override
     public void close() {
         try {
-            clearCache();
+            exportStatistics();
         } finally {
-            httpClient.close();
+            try {
+                // stop the background tasks first, so they don't use the cache after it has been released:
+                streams.closeAll();
+                executor.shutdownNow();
+                releaseCache();
+            } finally {
+                httpClient.close();
+            }
+        }
+    }
+
+    @Override
+    public void closePages() {
+        streams.closeAll();
+    }
+
+    private void exportStatistics() {
+        if (STATISTICS_FILE != null && !STATISTICS_FILE.isEmpty()) {
+            try {
+                IOUtils.write(new File(STATISTICS_FILE), httpClient.getMetrics().toJson());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not write statistics: {}", STATISTICS_FILE, e);
+            }
         }
     }
 
     private class IssueList extends PaginationList<Issue> {
         private final Request request;
 
+        private Collection<String> fields;
+
         public IssueList(String path, String field, Request request) {
-            super(path, field, toIssue());
+            super(path, getPageSize(request), request.getLimit(), field, toIssue());
             this.request = request;
         }
 
         @Override
-        protected JSONObject fetch(String path) {
-            return DefaultWebService.this.get(path, getField(), request);
+        protected Page fetch(String path) {
+            fields = filterFields(request);
+            JSONObject cached = getCached(path, getField(), request, fields);
+            if (cached == null) {
+                // stream the response, so that the first issues are available as soon as possible:
+                String p = addParams(path, request, fields);
+                return Page.stream(executor, httpClient, p, getField(), streams);
+            } else {
+                return Page.of(cached, getField());
+            }
+        }
+
+        @Override
+        protected boolean isPrefetching() {
+            return true;
+        }
+
+        @Override
+        protected void fetched(JSONObject element) {
+            // see cacheResults
+            addFields(element, fields);
+        }
+
+        @Override
+        protected void fetched(String path, JSONObject object) {
+            synchronized (cache()) {
+                JSONObject cached = cache().getIssues(path);
+                if (cached != object) {
+                    cacheResults(path, getField(), fields, cached, object);
+                }
+            }
         }
     }
 
@@ -1183,6 +1620,8 @@ public class DefaultWebService implements WebService {
         private final List<E> fetched;
 
         private final String path;
+        private final int pageSize;
+        private final int limit;
         private final String field;
         private final Function<JSONObject, E> function;
 
@@ -1190,12 +1629,28 @@ public class DefaultWebService implements WebService {
 
         private int size;
 
-        public PaginationList(String path, String field, Function<JSONObject, E> function) {
+        /**
+         * The page currently being read, followed by the pages that are prefetched
+         */
+        private final Deque<PendingPage> pages;
+
+        public PaginationList(String path, int pageSize, String field, Function<JSONObject, E> function) {
+            this(path, pageSize, 0, field, function);
+        }
+
+        /**
+         * @param limit The number of elements that will probably be needed, 0 if unknown. Only the first page is
+         *            limited, so that the remaining elements can still be fetched if more are needed after all
+         */
+        public PaginationList(String path, int pageSize, int limit, String field, Function<JSONObject, E> function) {
             this.path = path;
+            this.pageSize = pageSize;
+            this.limit = limit;
             this.field = field;
             this.function = function;
             this.fetched = new ArrayList<>();
             this.size = -1;
+            this.pages = new ArrayDeque<>();
         }
 
         protected String getField() {
@@ -1243,28 +1698,39 @@ public class DefaultWebService implements WebService {
             };
         }
 
+        /**
+         * Fetches the next element of the current page or, if the current page is complete, the next page
+         */
         private void fetchMore() {
             if (fetchedAll) {
                 throw new IllegalStateException();
             }
-            String p = path;
-            if (!fetched.isEmpty()) {
-                p = addParam(p, "startAt", fetched.size());
+
+            if (pages.isEmpty()) {
+                requestPage(fetched.size());
             }
-            JSONObject object = fetch(p);
-            JSONArray values = object.getJSONArray(field);
-            for (Object obj : values) {
-                JSONObject json = (JSONObject) obj;
+
+            PendingPage current = pages.getFirst();
+            JSONObject json = current.page.next();
+            if (json != null) {
+                fetched(json);
                 E element = function.apply(json, Hint.none());
                 if (element == null) {
                     throw new NullPointerException("Element cannot be null!");
                 }
                 fetched.add(element);
+                ++current.elements;
+                return;
             }
+
+            pages.removeFirst();
+            JSONObject object = current.page.getObject();
+            fetched(current.path, object);
+
             boolean isLast = object.optBoolean("isLast", false);
-            if (isLast) {
+            if (isLast || current.elements == 0) {
                 fetchedAll = true;
-                if (size == -1) {
+                if (size == -1 || current.elements == 0) {
                     size = fetched.size();
                 }
             } else {
@@ -1276,10 +1742,99 @@ public class DefaultWebService implements WebService {
                     }
                 }
             }
+
+            if (fetchedAll) {
+                pages.clear();
+            } else if (size != -1 && PREFETCH_PAGES > 1 && isPrefetching() && !current.limited) {
+                int maxResults = object.optInt("maxResults", current.elements);
+                if (current.elements == maxResults) {
+                    // the offsets of the remaining pages are known, request them in advance:
+                    while (pages.size() < PREFETCH_PAGES) {
+                        int start = (pages.isEmpty() ? fetched.size() : pages.getLast().start + maxResults);
+                        if (start >= size) {
+                            break;
+                        }
+                        requestPage(start);
+                    }
+                } else {
+                    // unexpected page size, the offsets of the prefetched pages might be wrong
+                    for (PendingPage page : pages) {
+                        page.page.close();
+                    }
+                    pages.clear();
+                }
+            }
         }
 
-        protected JSONObject fetch(String path) {
-            return DefaultWebService.this.get(path, TO_OBJECT);
+        private void requestPage(int start) {
+            // when only a few elements are needed, avoid fetching (and prefetching) full pages:
+            boolean limited = (start == 0 && limit > 0 && limit < pageSize);
+            String p = addParam(path, "maxResults", limited ? limit : pageSize);
+            if (start > 0) {
+                p = addParam(p, "startAt", start);
+            }
+            pages.addLast(new PendingPage(p, start, limited, fetch(p)));
+        }
+
+        /**
+         * @return <code>true</code> if pages will be fetched in the background by {@link #fetch(String)}, so that
+         *         multiple pages can be requested at the same time
+         */
+        protected boolean isPrefetching() {
+            return false;
+        }
+
+        protected Page fetch(String path) {
+            return Page.of(DefaultWebService.this.get(path, TO_OBJECT), field);
+        }
+
+        /**
+         * Called for every element, before it is converted
+         */
+        protected void fetched(JSONObject element) {
+        }
+
+        /**
+         * Called after all elements of a page have been fetched
+         */
+        protected void fetched(String path, JSONObject object) {
+        }
+    }
+
+    private static class PendingPage {
+        private final String path;
+        private final int start;
+        private final boolean limited;
+        private final Page page;
+
+        private int elements;
+
+        public PendingPage(String path, int start, boolean limited, Page page) {
+            this.path = path;
+            this.start = start;
+            this.limited = limited;
+            this.page = page;
+        }
+    }
+
+    private static int getPageSize() {
+        return (PAGE_SIZE > 0 ? Math.min(PAGE_SIZE, MAX_PAGE_SIZE) : LARGE_PAGE_SIZE);
+    }
+
+    private static int getPageSize(Request request) {
+        if (request.getPageSize() > 0) {
+            // larger pages will be truncated by the server anyway:
+            return Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+        } else if (PAGE_SIZE > 0) {
+            return Math.min(PAGE_SIZE, MAX_PAGE_SIZE);
+        } else if (request.getAllFields() || request.getFields().contains("*")) {
+            // keep the size of the responses bounded for expensive requests:
+            return SMALL_PAGE_SIZE;
+        } else if (request.getFields().size() <= FEW_FIELDS) {
+            // cheap requests, use as few round-trips as possible:
+            return LARGE_PAGE_SIZE;
+        } else {
+            return DEFAULT_PAGE_SIZE;
         }
     }
 
@@ -1324,7 +1879,7 @@ public class DefaultWebService implements WebService {
         }
 
         private synchronized Map<String, FieldInfo> getFieldInfos() {
-            Map<String, FieldInfo> fieldInfos = cache.getFieldInfos();
+            Map<String, FieldInfo> fieldInfos = cache().getFieldInfos();
             if (fieldInfos == null) {
                 fieldInfos = new HashMap<>();
                 JSONArray array = get("/rest/api/latest/field", TO_ARRAY);
@@ -1347,7 +1902,7 @@ public class DefaultWebService implements WebService {
                 }
                 // Field 'parent' is not included in the array!
                 fieldInfos.put("parent", new FieldInfo("Parent", ConverterProvider.getIssueConverter()));
-                cache.setFieldInfos(fieldInfos);
+                cache().setFieldInfos(fieldInfos);
             }
             return fieldInfos;
         }
@@ -26,42 +26,58 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.AccessControlException;
 import java.security.GeneralSecurityException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 
 import javax.net.ssl.SSLContext;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthProtocolState;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.AuthState;
 import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.AuthCache;
 import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.util.EntityUtils;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +96,40 @@ class HttpClient implements AutoCloseable {
 
     private static final int MAX_ERROR_LENGTH = 500;
 
+    private static final int MAX_CONNECTIONS = Integer.getInteger("jiracli.http.maxConnections", 20);
+    private static final int MAX_CONNECTIONS_PER_ROUTE = Integer.getInteger("jiracli.http.maxConnectionsPerRoute", 8);
+
+    /**
+     * Time after which pooled connections are validated before being reused, in milliseconds
+     */
+    private static final int VALIDATE_AFTER_INACTIVITY = 2000;
+
+    /**
+     * Keep-alive duration if the server doesn't send a <code>Keep-Alive</code> header, in milliseconds
+     */
+    private static final long DEFAULT_KEEP_ALIVE = 30000;
+
+    /**
+     * Idle connections will be closed after this time, in seconds
+     */
+    private static final long MAX_IDLE_TIME = 60;
+
+    /**
+     * Time to wait for a pooled connection, in milliseconds, so that requests fail instead of waiting forever when
+     * all connections are in use
+     */
+    private static final int CONNECTION_REQUEST_TIMEOUT = Integer.getInteger("jiracli.http.connectionRequestTimeout",
+            60000);
+
+    private static final int REQUESTS_PER_SECOND = Integer.getInteger("jiracli.http.requestsPerSecond", 0);
+
+    /**
+     * If enabled, a session is created once and the session cookie is used to authenticate all further requests,
+     * instead of sending the credentials with every request
+     */
+    private static final boolean SESSION_AUTHENTICATION = "session".equalsIgnoreCase(
+            System.getProperty("jiracli.http.authentication", "basic"));
+
     private static final Function<Reader, String> TO_STRING;
     private static final SSLConnectionSocketFactory SSL_SOCKET_FACTORY;
 
@@ -101,14 +151,28 @@ class HttpClient implements AutoCloseable {
     }
 
     private final Map<String, Credentials> credentials;
-    private final AtomicReference<HttpUriRequest> request;
+    private final Set<HttpUriRequest> requests;
     private final Supplier<String> baseUrl;
     private final CloseableHttpClient httpClient;
-    private final HttpClientContext httpClientContext;
+    private final CredentialsProvider credentialsProvider;
+    private final AuthCache authCache;
+    private final RetryPolicy retryPolicy;
+    private final ConcurrentMap<String, RateLimiter> rateLimiters;
+    private final Metrics metrics;
+    private final boolean sessionAuthentication;
 
-    public HttpClient(final Console console) {
-        this.credentials = new HashMap<String, Credentials>();
-        this.request = new AtomicReference<>();
+    /**
+     * The shared sessions used by this instance, by user and base URL, released when this instance is closed
+     */
+    private final Map<String, SessionRegistry.Session> sessions;
+
+    public HttpClient(Console console) {
+        this(console, SESSION_AUTHENTICATION);
+    }
+
+    HttpClient(final Console console, boolean sessionAuthentication) {
+        this.credentials = new ConcurrentHashMap<String, Credentials>();
+        this.requests = Collections.newSetFromMap(new ConcurrentHashMap<HttpUriRequest, Boolean>());
 
         this.baseUrl = new Supplier<String>() {
             @Override
@@ -118,13 +182,18 @@ class HttpClient implements AutoCloseable {
         };
 
         this.httpClient = createHttpClient();
-        this.httpClientContext = createHttpClientContext(console);
+        this.credentialsProvider = createCredentialsProvider(console);
+        this.authCache = new BasicAuthCache();
+        this.retryPolicy = new RetryPolicy();
+        this.rateLimiters = new ConcurrentHashMap<>();
+        this.metrics = new Metrics();
+        this.sessionAuthentication = sessionAuthentication;
+        this.sessions = new HashMap<>();
 
         console.onInterrupt(new Runnable() {
             @Override
             public void run() {
-                HttpUriRequest req = request.get();
-                if (req != null) {
+                for (HttpUriRequest req : requests) {
                     req.abort();
                 }
             }
@@ -132,15 +201,27 @@ class HttpClient implements AutoCloseable {
     }
 
     private static CloseableHttpClient createHttpClient() {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSL_SOCKET_FACTORY).build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY);
+
         HttpClientBuilder httpClientBuilder = HttpClients.custom();
-        httpClientBuilder.setSSLSocketFactory(SSL_SOCKET_FACTORY);
+        httpClientBuilder.setConnectionManager(connectionManager);
+        httpClientBuilder.setKeepAliveStrategy(new KeepAliveStrategy());
+        httpClientBuilder.setDefaultRequestConfig(
+                RequestConfig.custom().setConnectionRequestTimeout(CONNECTION_REQUEST_TIMEOUT).build());
+        httpClientBuilder.evictExpiredConnections();
+        httpClientBuilder.evictIdleConnections(MAX_IDLE_TIME, TimeUnit.SECONDS);
         return httpClientBuilder.build();
     }
 
-    private HttpClientContext createHttpClientContext(final Console console) {
-        HttpClientContext context = HttpClientContext.create();
-
-        CredentialsProvider credentialsProvider = new CredentialsProvider() {
+    private CredentialsProvider createCredentialsProvider(final Console console) {
+        return new CredentialsProvider() {
             @Override
             public void setCredentials(AuthScope authscope, org.apache.http.auth.Credentials credentials) {
             }
@@ -148,13 +229,18 @@ class HttpClient implements AutoCloseable {
             @Override
             public org.apache.http.auth.Credentials getCredentials(AuthScope authscope) {
                 String baseUrl = getBaseUrl();
-                Credentials c = HttpClient.this.credentials.get(baseUrl);
-                if (c == null) {
-                    c = console.getCredentials(authscope.getOrigin().toURI());
+                Credentials c;
+                synchronized (HttpClient.this.credentials) {
+                    // only ask once, even when multiple requests are challenged at the same time
+                    c = HttpClient.this.credentials.get(baseUrl);
                     if (c == null) {
-                        throw new IllegalStateException("No credentials provided!");
+                        HttpHost origin = authscope.getOrigin();
+                        c = console.getCredentials(origin == null ? baseUrl : origin.toURI());
+                        if (c == null) {
+                            throw new IllegalStateException("No credentials provided!");
+                        }
+                        HttpClient.this.credentials.put(baseUrl, c);
                     }
-                    HttpClient.this.credentials.put(baseUrl, c);
                 }
                 if (c == Credentials.getAnonymous()) {
                     return null;
@@ -167,10 +253,45 @@ class HttpClient implements AutoCloseable {
             public void clear() {
             }
         };
-        context.setCredentialsProvider(credentialsProvider);
+    }
+
+    /**
+     * Each request gets its own context, so that requests can be executed concurrently. Credentials and
+     * successful authentication schemes are shared between all contexts.
+     */
+    private HttpClientContext createHttpClientContext() {
+        HttpClientContext context = HttpClientContext.create();
+        if (sessionAuthentication) {
+            // don't send any credentials, the session cookie is sufficient:
+            context.setCookieStore(getSession().getCookieStore());
+        } else {
+            context.setCredentialsProvider(credentialsProvider);
+            context.setAuthCache(authCache);
+        }
         return context;
     }
 
+    /**
+     * @return The session of the current user, which is shared with all other instances for the same user
+     */
+    private SessionRegistry.Session getSession() {
+        String baseUrl = getBaseUrl();
+        String username = getUsername();
+        String key = username + "@" + baseUrl;
+        synchronized (sessions) {
+            SessionRegistry.Session session = sessions.get(key);
+            if (session == null) {
+                session = SessionRegistry.acquire(baseUrl, username);
+                sessions.put(key, session);
+            }
+            return session;
+        }
+    }
+
+    Metrics getMetrics() {
+        return metrics;
+    }
+
     public String getBaseUrl() {
         String url = baseUrl.get(Hint.none());
         if (url == null || url.trim().isEmpty()) {
@@ -182,6 +303,15 @@ class HttpClient implements AutoCloseable {
         return url;
     }
 
+    /**
+     * @return The name of the user whose credentials are used, an empty string for anonymous access or when no
+     *         credentials have been requested by the server yet. Never asks for credentials.
+     */
+    public String getUsername() {
+        Credentials c = credentials.get(getBaseUrl());
+        return (c == null || c == Credentials.getAnonymous() ? "" : c.getUsername());
+    }
+
     public String get(URI uri) {
         return execute(new HttpGet(uri), TO_STRING);
     }
@@ -194,10 +324,45 @@ class HttpClient implements AutoCloseable {
         return execute(new HttpGet(getUrl(path)), function);
     }
 
+    /**
+     * Requests the given path, unless the given response is still up to date
+     *
+     * @param cached The previous response or <code>null</code>
+     * @return The new response or <code>null</code> if the previous response has not been modified
+     */
+    public CachedResponse get(String path, CachedResponse cached) {
+        final HttpGet request = new HttpGet(getUrl(path));
+        if (cached != null) {
+            if (cached.getEtag() != null) {
+                request.addHeader("If-None-Match", cached.getEtag());
+            }
+            if (cached.getLastModified() != null) {
+                request.addHeader("If-Modified-Since", cached.getLastModified());
+            }
+        }
+        return execute(request, true, new Function<HttpResponse, CachedResponse>() {
+            @Override
+            public CachedResponse apply(HttpResponse response, Set<Hint> hints) {
+                if (response.getStatusLine().getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    return null;
+                }
+                HttpEntity entity = response.getEntity();
+                String body = (entity == null ? "" : readResponse(request.getURI(), entity, TO_STRING));
+                return new CachedResponse(body, getHeader(response, "ETag"), getHeader(response, "Last-Modified"));
+            }
+        });
+    }
+
+    private static String getHeader(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return (header == null ? null : header.getValue());
+    }
+
     public void get(final URI uri, final Consumer<InputStream> consumer) {
-        execute(new HttpGet(uri), true, new Function<HttpEntity, Void>() {
+        execute(new HttpGet(uri), true, new Function<HttpResponse, Void>() {
             @Override
-            public Void apply(HttpEntity entity, Set<Hint> hints) {
+            public Void apply(HttpResponse response, Set<Hint> hints) {
+                HttpEntity entity = response.getEntity();
                 if (entity == null) {
                     throw new IllegalStateException("No response!");
                 } else {
@@ -257,32 +422,40 @@ class HttpClient implements AutoCloseable {
         return execute(request, function);
     }
 
-    private URI getUrl(String path) {
+    URI getUrl(String path) {
         if (!path.startsWith("/")) {
             throw new IllegalArgumentException("Invalid path: " + path);
         }
         return URI.create(getBaseUrl() + path);
     }
 
-    private <T> T execute(final HttpUriRequest request, final Function<Reader, T> function) {
-        return execute(request, true, new Function<HttpEntity, T>() {
+    <T> T execute(final HttpUriRequest request, final Function<Reader, T> function) {
+        return execute(request, true, new Function<HttpResponse, T>() {
             @Override
-            public T apply(HttpEntity entity, Set<Hint> hints) {
+            public T apply(HttpResponse response, Set<Hint> hints) {
+                HttpEntity entity = response.getEntity();
                 return (entity == null ? null : readResponse(request.getURI(), entity, function));
             }
         });
     }
 
-    private <T> T execute(HttpUriRequest request, boolean retry, Function<HttpEntity, T> function) {
-        this.request.set(request);
+    private <T> T execute(HttpUriRequest request, boolean retry, Function<HttpResponse, T> function) {
+        requests.add(request);
         try {
-            return doExecute(request, retry, function);
+            return doExecute(request, createHttpClientContext(), retry, 0, function);
         } finally {
-            this.request.set(null);
+            requests.remove(request);
         }
     }
 
-    private <T> T doExecute(HttpUriRequest request, boolean retry, Function<HttpEntity, T> function) {
+    private <T> T doExecute(HttpUriRequest request, HttpClientContext httpClientContext, boolean retry, int attempt,
+            Function<HttpResponse, T> function) {
+        RateLimiter rateLimiter = getRateLimiter();
+        rateLimiter.acquire();
+
+        SessionRegistry.Session session = (sessionAuthentication ? getSession() : null);
+        int created = (session == null ? 0 : session.getCreated());
+
         LOGGER.debug("Calling URL: {} [{}]", request.getURI(), request.getMethod());
 
         // disable XSRF check:
@@ -290,10 +463,18 @@ class HttpClient implements AutoCloseable {
             request.addHeader("X-Atlassian-Token", "nocheck");
         }
 
+        long bytesSent = 0;
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity requestEntity = ((HttpEntityEnclosingRequest) request).getEntity();
+            bytesSent = (requestEntity == null ? 0 : requestEntity.getContentLength());
+        }
+        Metrics.Call call = metrics.start(request.getMethod(), request.getURI(), bytesSent);
+
         HttpResponse response;
         try {
             response = httpClient.execute(request, httpClientContext);
         } catch (IOException e) {
+            call.finish();
             if (Thread.interrupted()) {
                 LOGGER.trace("Could not call URL: {}", request.getURI(), e);
                 throw new InterruptedError();
@@ -304,22 +485,26 @@ class HttpClient implements AutoCloseable {
 
         LOGGER.debug("Response received ({})", response.getStatusLine().toString().trim());
 
-        HttpEntity entity = response.getEntity();
+        call.responded(response.getStatusLine().getStatusCode());
+
+        HttpEntity entity = call.wrap(response.getEntity());
+        response.setEntity(entity);
         try {
             if (Thread.interrupted()) {
                 throw new InterruptedError();
             }
 
             int statusCode = response.getStatusLine().getStatusCode();
-            if (isSuccess(statusCode)) {
+            boolean notModified = (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED && isConditional(request));
+            if (isSuccess(statusCode) || notModified) {
                 T result;
                 try {
-                    result = function.apply(entity, Hint.none());
+                    result = function.apply(response, Hint.none());
                 } catch (NotAuthenticatedException e) {
                     if (retry) {
-                        resetAuthentication();
-                        setCredentials();
-                        return doExecute(request, false, function);
+                        call.retried();
+                        authenticate(httpClientContext, session, created);
+                        return doExecute(request, httpClientContext, false, attempt, function);
                     } else {
                         throw e.getCause();
                     }
@@ -339,24 +524,34 @@ class HttpClient implements AutoCloseable {
                 return result;
             } else {
                 if (statusCode == HttpURLConnection.HTTP_UNAUTHORIZED) {
-                    resetAuthentication();
                     if (retry) {
-                        setCredentials();
-                        return doExecute(request, false, function);
+                        call.retried();
+                        authenticate(httpClientContext, session, created);
+                        return doExecute(request, httpClientContext, false, attempt, function);
                     } else {
+                        resetAuthentication(httpClientContext);
                         String error = readErrorResponse(request.getURI(), entity);
                         LOGGER.debug("Unauthorized [401]: {}", error);
                         throw new AccessControlException("Unauthorized [401]: " + request.getURI());
                     }
                 } else if (statusCode == HttpURLConnection.HTTP_FORBIDDEN) {
-                    resetAuthentication();
+                    resetAuthentication(httpClientContext);
                     checkAccountLocked(response);
                     if (retry) {
-                        setCredentials();
-                        return doExecute(request, false, function);
+                        call.retried();
+                        authenticate(httpClientContext, session, created);
+                        return doExecute(request, httpClientContext, false, attempt, function);
                     } else {
                         throw new AccessControlException("Forbidden [403]: " + request.getURI());
                     }
+                } else if (retryPolicy.shouldRetry(request.getMethod(), response, attempt)) {
+                    long delay = retryPolicy.getDelay(response, attempt);
+                    LOGGER.debug("Retrying in {} ms ({}): {}", delay, statusCode, request.getURI());
+                    // release the connection before waiting:
+                    EntityUtils.consumeQuietly(entity);
+                    call.retried();
+                    rateLimiter.pause(delay);
+                    return doExecute(request, httpClientContext, retry, attempt + 1, function);
                 } else {
                     String status = response.getStatusLine().toString().trim();
                     String message;
@@ -380,13 +575,31 @@ class HttpClient implements AutoCloseable {
             }
         } finally {
             EntityUtils.consumeQuietly(entity);
+            call.finish();
+        }
+    }
+
+    private RateLimiter getRateLimiter() {
+        String url = getBaseUrl();
+        RateLimiter rateLimiter = rateLimiters.get(url);
+        if (rateLimiter == null) {
+            rateLimiter = new RateLimiter(REQUESTS_PER_SECOND);
+            RateLimiter existing = rateLimiters.putIfAbsent(url, rateLimiter);
+            if (existing != null) {
+                rateLimiter = existing;
+            }
         }
+        return rateLimiter;
     }
 
     private static boolean isSuccess(int statusCode) {
         return statusCode >= 200 && statusCode <= 299;
     }
 
+    private static boolean isConditional(HttpUriRequest request) {
+        return request.containsHeader("If-None-Match") || request.containsHeader("If-Modified-Since");
+    }
+
     private static <T> T readResponse(URI uri, HttpEntity entity, Function<Reader, T> function) {
         try (InputStream input = entity.getContent()) {
             try (Reader reader = new InputStreamReader(input, getEncoding(entity))) {
@@ -416,16 +629,62 @@ class HttpClient implements AutoCloseable {
         return StandardCharsets.UTF_8;
     }
 
-    private void resetAuthentication() {
+    private void resetAuthentication(HttpClientContext httpClientContext) {
         String url = getBaseUrl();
         credentials.remove(url);
+        authCache.clear();
         AuthState authState = httpClientContext.getTargetAuthState();
         if (authState != null) {
             authState.reset();
         }
     }
 
-    private void setCredentials() {
+    /**
+     * Prepares the given context for sending the request again
+     *
+     * @param session The session that was used when the request was sent
+     * @param created The number of sessions created when the request was sent
+     */
+    private void authenticate(HttpClientContext httpClientContext, SessionRegistry.Session session, int created) {
+        if (sessionAuthentication) {
+            // the user might be known only now, so the session can differ from the previous one:
+            httpClientContext.setCookieStore(createSession(session, created).getCookieStore());
+        } else {
+            resetAuthentication(httpClientContext);
+            setCredentials(httpClientContext);
+        }
+    }
+
+    private SessionRegistry.Session createSession(SessionRegistry.Session previous, int created) {
+        AuthScope authScope = new AuthScope(HttpHost.create(getBaseUrl()));
+        org.apache.http.auth.Credentials c = credentialsProvider.getCredentials(authScope);
+        SessionRegistry.Session session = getSession();
+        synchronized (session) {
+            if (session == previous ? session.getCreated() != created : session.getCreated() > 0) {
+                // another request, possibly of another instance, has already created a new session
+                return session;
+            }
+            if (c != null) {
+                LOGGER.debug("Creating new session for {}", c.getUserPrincipal().getName());
+                JSONObject body = new JSONObject();
+                body.put("username", c.getUserPrincipal().getName());
+                body.put("password", c.getPassword());
+                HttpPost request = new HttpPost(getUrl("/rest/auth/latest/session"));
+                request.setEntity(new StringEntity(body.toString(), ContentType.APPLICATION_JSON));
+                // the session cookie will be stored in the cookie store of the session:
+                execute(request, false, new Function<HttpResponse, Void>() {
+                    @Override
+                    public Void apply(HttpResponse response, Set<Hint> hints) {
+                        return null;
+                    }
+                });
+            }
+            session.created();
+        }
+        return session;
+    }
+
+    private void setCredentials(HttpClientContext httpClientContext) {
         AuthState authState = httpClientContext.getTargetAuthState();
         if (authState != null) {
             CredentialsProvider credentialsProvider = httpClientContext.getCredentialsProvider();
@@ -477,6 +736,12 @@ class HttpClient implements AutoCloseable {
 
     @Override
     public void close() {
+        synchronized (sessions) {
+            for (SessionRegistry.Session session : sessions.values()) {
+                SessionRegistry.release(session);
+            }
+            sessions.clear();
+        }
         try {
             httpClient.close();
         } catch (IOException e) {
@@ -484,6 +749,17 @@ class HttpClient implements AutoCloseable {
         }
     }
 
+    /**
+     * Uses the duration given by the server, if any, otherwise keeps connections alive for a limited time
+     */
+    private static class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return (duration > 0 ? duration : DEFAULT_KEEP_ALIVE);
+        }
+    }
+
     /**
      * Can be thrown to indicate that the error might have been caused by an invalid/insufficient authentication
      */
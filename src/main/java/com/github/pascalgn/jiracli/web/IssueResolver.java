@@ -0,0 +1,155 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.util.InterruptedError;
+import com.github.pascalgn.jiracli.util.StringUtils;
+
+/**
+ * Resolves issue keys by searching for them in chunks, so that the URLs stay short enough. The chunks are searched
+ * concurrently.
+ */
+abstract class IssueResolver {
+    /**
+     * Maximum length of the keys that will be searched in a single request
+     */
+    static final int MAX_LENGTH = Integer.getInteger("jiracli.search.maxKeysLength", 4000);
+
+    /**
+     * Maximum number of chunks that will be searched at the same time
+     */
+    private static final int CONCURRENCY = Integer.getInteger("jiracli.search.concurrency", 4);
+
+    /**
+     * Length of the separator between two keys, a URL encoded comma
+     */
+    private static final int SEPARATOR_LENGTH = 3;
+
+    private final ExecutorService executor;
+    private final int maxLength;
+
+    public IssueResolver(ExecutorService executor) {
+        this(executor, MAX_LENGTH);
+    }
+
+    IssueResolver(ExecutorService executor, int maxLength) {
+        this.executor = executor;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return The issues, by key. Keys which could not be found are not contained in the result
+     */
+    public Map<String, Issue> resolve(Collection<String> keys) {
+        List<List<String>> chunks = chunks(keys, maxLength);
+        Map<String, Issue> issues = new HashMap<>();
+        if (chunks.size() == 1) {
+            index(search(chunks.get(0)), issues);
+        } else {
+            Deque<Future<List<Issue>>> futures = new ArrayDeque<>();
+            try {
+                Iterator<List<String>> it = chunks.iterator();
+                while (it.hasNext() || !futures.isEmpty()) {
+                    while (it.hasNext() && futures.size() < CONCURRENCY) {
+                        futures.addLast(submit(it.next()));
+                    }
+                    index(getResult(futures.removeFirst()), issues);
+                }
+            } finally {
+                for (Future<List<Issue>> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return issues;
+    }
+
+    private Future<List<Issue>> submit(final List<String> chunk) {
+        return executor.submit(new Callable<List<Issue>>() {
+            @Override
+            public List<Issue> call() {
+                return search(chunk);
+            }
+        });
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedError(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private static void index(List<Issue> issues, Map<String, Issue> index) {
+        for (Issue issue : issues) {
+            index.put(issue.getKey(), issue);
+        }
+    }
+
+    private List<Issue> search(List<String> chunk) {
+        // fetch all pages, so that the whole chunk is loaded by the current thread:
+        return new ArrayList<>(search("key IN (" + StringUtils.join(chunk, ",") + ")"));
+    }
+
+    /**
+     * Returns the issues matching the given JQL
+     */
+    protected abstract List<Issue> search(String jql);
+
+    static List<List<String>> chunks(Collection<String> keys, int maxLength) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int length = 0;
+        for (String key : keys) {
+            int keyLength = key.length() + SEPARATOR_LENGTH;
+            if (!chunk.isEmpty() && length + keyLength > maxLength) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                length = 0;
+            }
+            chunk.add(key);
+            length += keyLength;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.io.Reader;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Reads the elements of an array contained in a JSON object one by one, without reading the whole object first.
+ * For example, when reading the field <code>issues</code> of <code>{"total":2,"issues":[{...},{...}]}</code>,
+ * the issues will be returned by {@link #next()} as soon as they have been read from the underlying reader.
+ */
+class JsonArrayReader {
+    private enum State {
+        INITIAL, ARRAY, END;
+    }
+
+    private final JSONTokener tokener;
+    private final String field;
+    private final JSONObject object;
+
+    private State state;
+    private boolean fieldFound;
+    private boolean first;
+
+    public JsonArrayReader(Reader reader, String field) {
+        this.tokener = new JSONTokener(reader);
+        this.field = field;
+        this.object = new JSONObject();
+        this.state = State.INITIAL;
+    }
+
+    /**
+     * @return The next element of the array or <code>null</code>, if all elements have been read
+     */
+    public JSONObject next() {
+        if (state == State.INITIAL) {
+            if (tokener.nextClean() != '{') {
+                throw tokener.syntaxError("A JSONObject text must begin with '{'");
+            }
+            state = readMembers();
+        }
+        while (state == State.ARRAY) {
+            if (first) {
+                first = false;
+            } else {
+                char c = tokener.nextClean();
+                if (c == ']') {
+                    state = readMembers();
+                    continue;
+                } else if (c != ',') {
+                    throw tokener.syntaxError("Expected a ',' or ']'");
+                }
+            }
+            Object value = tokener.nextValue();
+            if (value instanceof JSONObject) {
+                return (JSONObject) value;
+            } else {
+                throw tokener.syntaxError("Expected a JSONObject: " + value);
+            }
+        }
+        if (!fieldFound) {
+            throw new IllegalStateException("Field not found: " + field);
+        }
+        return null;
+    }
+
+    private State readMembers() {
+        while (true) {
+            char c = tokener.nextClean();
+            if (c == '}') {
+                return State.END;
+            } else if (c == 0) {
+                throw tokener.syntaxError("A JSONObject text must end with '}'");
+            } else if (c == ',') {
+                continue;
+            }
+            tokener.back();
+            String key = tokener.nextValue().toString();
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            if (key.equals(field)) {
+                if (tokener.nextClean() != '[') {
+                    throw tokener.syntaxError("Expected an array: " + field);
+                }
+                fieldFound = true;
+                if (tokener.nextClean() != ']') {
+                    tokener.back();
+                    first = true;
+                    return State.ARRAY;
+                }
+            } else {
+                object.put(key, tokener.nextValue());
+            }
+        }
+    }
+
+    /**
+     * @return The object containing the array, with all members except the array itself. Only complete after
+     *         {@link #next()} returned <code>null</code>.
+     */
+    public JSONObject getObject() {
+        return object;
+    }
+}
@@ -0,0 +1,389 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.github.pascalgn.jiracli.context.WebService.Statistics;
+import com.github.pascalgn.jiracli.util.ForwardingInputStream;
+
+/**
+ * Records the latency, size and result of all HTTP requests, grouped by endpoint, and the cache hits and misses
+ */
+class Metrics implements Statistics {
+    /**
+     * Upper bounds of the latency histogram buckets, in milliseconds. The last bucket has no upper bound.
+     */
+    private static final long[] BUCKETS = { 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000 };
+
+    private static final Pattern KEY = Pattern.compile("[A-Za-z][A-Za-z0-9_]*-[0-9]+");
+    private static final Pattern ID = Pattern.compile("[0-9]+");
+
+    private final Map<String, Endpoint> endpoints;
+    private final Map<String, long[]> cacheAccesses;
+
+    private long since;
+
+    public Metrics() {
+        this.endpoints = new TreeMap<>();
+        this.cacheAccesses = new TreeMap<>();
+        this.since = System.currentTimeMillis();
+    }
+
+    /**
+     * Called before a request is sent
+     */
+    public Call start(String method, URI uri, long bytesSent) {
+        return new Call(method + " " + getEndpoint(uri), bytesSent);
+    }
+
+    /**
+     * Called for every lookup of the given cache
+     */
+    public synchronized void cacheAccess(String cache, boolean hit) {
+        long[] accesses = cacheAccesses.get(cache);
+        if (accesses == null) {
+            accesses = new long[2];
+            cacheAccesses.put(cache, accesses);
+        }
+        ++accesses[hit ? 0 : 1];
+    }
+
+    private synchronized void record(Call call) {
+        Endpoint endpoint = endpoints.get(call.endpoint);
+        if (endpoint == null) {
+            endpoint = new Endpoint();
+            endpoints.put(call.endpoint, endpoint);
+        }
+        endpoint.record(call);
+    }
+
+    @Override
+    public synchronized void clear() {
+        endpoints.clear();
+        cacheAccesses.clear();
+        since = System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        long elapsed = System.currentTimeMillis() - since;
+        long requests = 0;
+        long time = 0;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint e = entry.getValue();
+            requests += e.requests;
+            time += e.totalTime;
+            StringBuilder str = new StringBuilder(entry.getKey());
+            str.append(": ").append(e.requests).append(e.requests == 1 ? " request" : " requests");
+            if (e.retries > 0) {
+                str.append(", ").append(e.retries).append(e.retries == 1 ? " retry" : " retries");
+            }
+            if (e.failures > 0) {
+                str.append(", ").append(e.failures).append(" failed");
+            }
+            str.append(", avg ").append(toMillis(e.totalTime / Math.max(1, e.requests))).append(" ms");
+            str.append(" (response ").append(toMillis(e.responseTime / Math.max(1, e.requests))).append(" ms)");
+            str.append(", p50 ").append(e.getPercentile(50)).append(" ms");
+            str.append(", p90 ").append(e.getPercentile(90)).append(" ms");
+            str.append(", max ").append(toMillis(e.maxTime)).append(" ms");
+            str.append(", ").append(toKilobytes(e.bytesReceived)).append(" KB received");
+            if (e.bytesSent > 0) {
+                str.append(", ").append(toKilobytes(e.bytesSent)).append(" KB sent");
+            }
+            str.append(", status ").append(e.statusCodes);
+            lines.add(str.toString());
+        }
+        for (Map.Entry<String, long[]> entry : cacheAccesses.entrySet()) {
+            long[] accesses = entry.getValue();
+            lines.add("Cache " + entry.getKey() + ": " + accesses[0] + " hits, " + accesses[1] + " misses");
+        }
+        lines.add("Total: " + requests + (requests == 1 ? " request, " : " requests, ") + toMillis(time)
+                + " ms in requests, " + elapsed + " ms elapsed");
+        return lines;
+    }
+
+    @Override
+    public synchronized long getRequests() {
+        long requests = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            requests += endpoint.requests;
+        }
+        return requests;
+    }
+
+    @Override
+    public synchronized long getCacheHits() {
+        long hits = 0;
+        for (long[] accesses : cacheAccesses.values()) {
+            hits += accesses[0];
+        }
+        return hits;
+    }
+
+    @Override
+    public synchronized String toJson() {
+        JSONObject json = new JSONObject();
+        json.put("since", since);
+        json.put("elapsed", System.currentTimeMillis() - since);
+
+        JSONObject endpointsJson = new JSONObject();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            endpointsJson.put(entry.getKey(), entry.getValue().toJson());
+        }
+        json.put("endpoints", endpointsJson);
+
+        JSONObject cacheJson = new JSONObject();
+        for (Map.Entry<String, long[]> entry : cacheAccesses.entrySet()) {
+            JSONObject accesses = new JSONObject();
+            accesses.put("hits", entry.getValue()[0]);
+            accesses.put("misses", entry.getValue()[1]);
+            cacheJson.put(entry.getKey(), accesses);
+        }
+        json.put("cache", cacheJson);
+
+        return json.toString(2);
+    }
+
+    /**
+     * Returns the endpoint of the given URI, with issue keys and IDs replaced by placeholders
+     */
+    static String getEndpoint(URI uri) {
+        String path = uri.getPath();
+        StringBuilder endpoint = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            endpoint.append("/");
+            if (KEY.matcher(segment).matches()) {
+                endpoint.append("{key}");
+            } else if (ID.matcher(segment).matches()) {
+                endpoint.append("{id}");
+            } else {
+                endpoint.append(segment);
+            }
+        }
+        return (endpoint.length() == 0 ? "/" : endpoint.toString());
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static long toKilobytes(long bytes) {
+        return (bytes + 1023) / 1024;
+    }
+
+    /**
+     * A single request
+     */
+    public class Call {
+        private final String endpoint;
+        private final long bytesSent;
+        private final long start;
+
+        private long responseTime;
+        private int statusCode;
+        private long bytesReceived;
+        private boolean retried;
+        private boolean finished;
+
+        private Call(String endpoint, long bytesSent) {
+            this.endpoint = endpoint;
+            this.bytesSent = Math.max(0, bytesSent);
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Called when the response headers have been received
+         */
+        public void responded(int statusCode) {
+            this.responseTime = System.nanoTime() - start;
+            this.statusCode = statusCode;
+        }
+
+        /**
+         * Returns an entity which counts the received bytes
+         */
+        public HttpEntity wrap(HttpEntity entity) {
+            if (entity == null) {
+                return null;
+            }
+            return new HttpEntityWrapper(entity) {
+                @Override
+                public InputStream getContent() throws IOException {
+                    return new ForwardingInputStream(super.getContent()) {
+                        @Override
+                        public int read() throws IOException {
+                            int b = super.read();
+                            if (b != -1) {
+                                received(1);
+                            }
+                            return b;
+                        }
+
+                        @Override
+                        public int read(byte[] b) throws IOException {
+                            return read(b, 0, b.length);
+                        }
+
+                        @Override
+                        public int read(byte[] b, int off, int len) throws IOException {
+                            int count = super.read(b, off, len);
+                            if (count > 0) {
+                                received(count);
+                            }
+                            return count;
+                        }
+                    };
+                }
+            };
+        }
+
+        private synchronized void received(int bytes) {
+            bytesReceived += bytes;
+        }
+
+        /**
+         * Called when the request will be sent again
+         */
+        public void retried() {
+            retried = true;
+            finish();
+        }
+
+        /**
+         * Called when the response has been processed or the request failed. Further calls will be ignored.
+         */
+        public void finish() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+            }
+            record(this);
+        }
+    }
+
+    private static class Endpoint {
+        private long requests;
+        private long retries;
+        private long failures;
+        private long totalTime;
+        private long responseTime;
+        private long maxTime;
+        private long bytesSent;
+        private long bytesReceived;
+        private final long[] histogram = new long[BUCKETS.length + 1];
+        private final Map<Integer, Long> statusCodes = new TreeMap<>();
+
+        public void record(Call call) {
+            long time = System.nanoTime() - call.start;
+            ++requests;
+            if (call.retried) {
+                ++retries;
+            }
+            totalTime += time;
+            responseTime += (call.statusCode == 0 ? time : call.responseTime);
+            maxTime = Math.max(maxTime, time);
+            bytesSent += call.bytesSent;
+            synchronized (call) {
+                bytesReceived += call.bytesReceived;
+            }
+            if (call.statusCode == 0) {
+                ++failures;
+            } else {
+                Long count = statusCodes.get(call.statusCode);
+                statusCodes.put(call.statusCode, (count == null ? 1 : count + 1));
+            }
+            ++histogram[getBucket(toMillis(time))];
+        }
+
+        private static int getBucket(long millis) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (millis <= BUCKETS[i]) {
+                    return i;
+                }
+            }
+            return BUCKETS.length;
+        }
+
+        /**
+         * @return The upper bound of the bucket containing the given percentile, or the maximum time if the
+         *         percentile is in the last bucket
+         */
+        public long getPercentile(int percentile) {
+            long rank = (requests * percentile + 99) / 100;
+            long count = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                count += histogram[i];
+                if (count >= rank) {
+                    return Math.min(BUCKETS[i], toMillis(maxTime));
+                }
+            }
+            return toMillis(maxTime);
+        }
+
+        public JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            json.put("requests", requests);
+            json.put("retries", retries);
+            json.put("failures", failures);
+            json.put("totalTime", toMillis(totalTime));
+            json.put("responseTime", toMillis(responseTime));
+            json.put("maxTime", toMillis(maxTime));
+            json.put("p50", getPercentile(50));
+            json.put("p90", getPercentile(90));
+            json.put("p99", getPercentile(99));
+            json.put("bytesSent", bytesSent);
+            json.put("bytesReceived", bytesReceived);
+
+            JSONArray histogramJson = new JSONArray();
+            for (int i = 0; i < histogram.length; i++) {
+                JSONObject bucket = new JSONObject();
+                if (i < BUCKETS.length) {
+                    bucket.put("le", BUCKETS[i]);
+                }
+                bucket.put("count", histogram[i]);
+                histogramJson.put(bucket);
+            }
+            json.put("histogram", histogramJson);
+
+            JSONObject statusCodesJson = new JSONObject();
+            for (Map.Entry<Integer, Long> entry : statusCodes.entrySet()) {
+                statusCodesJson.put(entry.getKey().toString(), entry.getValue());
+            }
+            json.put("statusCodes", statusCodesJson);
+            return json;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.io.Reader;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.methods.HttpGet;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.github.pascalgn.jiracli.util.Function;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.InterruptedError;
+
+/**
+ * A single page of a paginated response, for example the result of <code>/rest/api/latest/search</code>
+ */
+abstract class Page {
+    private static final int QUEUE_CAPACITY = 100;
+
+    /**
+     * Interval in milliseconds to check if a page that is waiting to be read is still used
+     */
+    private static final long POLL_INTERVAL = 500;
+
+    private static final Object END = new Object();
+
+    /**
+     * Returns a page backed by an already available response
+     */
+    public static Page of(JSONObject object, String field) {
+        return new CompletedPage(object, field);
+    }
+
+    /**
+     * Returns a page that will be fetched in the background. The elements are available as soon as they have been
+     * read from the response, before the whole response has been received.
+     *
+     * @param streams The page is added to these streams until it has been read completely
+     */
+    public static Page stream(Executor executor, HttpClient httpClient, String path, String field, Streams streams) {
+        return stream(executor, httpClient, path, field, streams, QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param capacity The number of elements that are read in advance, reading the response pauses when this many
+     *            elements have not been requested yet
+     */
+    static Page stream(Executor executor, HttpClient httpClient, String path, String field, Streams streams,
+            int capacity) {
+        Stream stream = new Stream(httpClient, path, field, streams, capacity);
+        StreamingPage page = new StreamingPage(stream);
+        stream.page = new WeakReference<>(page);
+        streams.streams.add(stream);
+        try {
+            executor.execute(stream);
+        } catch (RuntimeException e) {
+            streams.streams.remove(stream);
+            throw e;
+        }
+        return page;
+    }
+
+    /**
+     * @return The next element of this page or <code>null</code>, if there are no more elements
+     */
+    public abstract JSONObject next();
+
+    /**
+     * @return The complete response object, only available after {@link #next()} returned <code>null</code>
+     */
+    public abstract JSONObject getObject();
+
+    /**
+     * Stops reading this page, if it is no longer needed. Pages that are no longer referenced are closed
+     * automatically.
+     */
+    public void close() {
+    }
+
+    private static class CompletedPage extends Page {
+        private final JSONObject object;
+        private final JSONArray elements;
+
+        private int index;
+
+        public CompletedPage(JSONObject object, String field) {
+            this.object = object;
+            this.elements = object.getJSONArray(field);
+        }
+
+        @Override
+        public JSONObject next() {
+            return (index < elements.length() ? elements.getJSONObject(index++) : null);
+        }
+
+        @Override
+        public JSONObject getObject() {
+            return object;
+        }
+    }
+
+    private static class StreamingPage extends Page {
+        private final Stream stream;
+        private final JSONArray elements;
+
+        private boolean done;
+
+        public StreamingPage(Stream stream) {
+            this.stream = stream;
+            this.elements = new JSONArray();
+        }
+
+        @Override
+        public JSONObject next() {
+            if (done) {
+                return null;
+            }
+            Object item;
+            try {
+                while ((item = stream.queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS)) == null) {
+                    if (stream.closed) {
+                        done = true;
+                        throw new IllegalStateException("Page has been closed: " + stream.request.getURI());
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw new InterruptedError(e);
+            }
+            if (item == END) {
+                done = true;
+                stream.object.put(stream.field, elements);
+                return null;
+            } else if (item instanceof Failure) {
+                done = true;
+                throw ((Failure) item).rethrow();
+            } else {
+                JSONObject json = (JSONObject) item;
+                elements.put(json);
+                return json;
+            }
+        }
+
+        @Override
+        public JSONObject getObject() {
+            if (!done) {
+                throw new IllegalStateException("Page not completely read: " + stream.request.getURI());
+            }
+            return stream.object;
+        }
+
+        @Override
+        public void close() {
+            if (!done) {
+                done = true;
+                stream.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the response in the background. Only a reference to the page is kept, so that the request can be
+     * aborted when the page is no longer used, even if it has not been closed.
+     */
+    private static class Stream implements Runnable {
+        private final HttpClient httpClient;
+        private final HttpGet request;
+        private final String field;
+        private final Streams streams;
+        private final BlockingQueue<Object> queue;
+
+        private volatile Reference<StreamingPage> page;
+        private volatile boolean closed;
+
+        private JSONObject object;
+
+        public Stream(HttpClient httpClient, String path, String field, Streams streams, int capacity) {
+            this.httpClient = httpClient;
+            this.request = new HttpGet(httpClient.getUrl(path));
+            this.field = field;
+            this.streams = streams;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            try {
+                httpClient.execute(request, new Function<Reader, Void>() {
+                    @Override
+                    public Void apply(Reader reader, Set<Hint> hints) {
+                        JsonArrayReader arrayReader = new JsonArrayReader(reader, field);
+                        JSONObject json;
+                        while ((json = arrayReader.next()) != null) {
+                            if (!put(json)) {
+                                return null;
+                            }
+                        }
+                        object = arrayReader.getObject();
+                        return null;
+                    }
+                });
+                put(END);
+            } catch (Throwable e) {
+                if (!isClosed()) {
+                    put(new Failure(e));
+                }
+            } finally {
+                streams.streams.remove(this);
+            }
+        }
+
+        /**
+         * Waits until the page has room for the given item
+         *
+         * @return <code>false</code> if the page has been closed or is no longer used
+         */
+        private boolean put(Object item) {
+            try {
+                while (!queue.offer(item, POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    if (isClosed()) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                return false;
+            }
+        }
+
+        private boolean isClosed() {
+            if (!closed && page.get() == null) {
+                close();
+            }
+            return closed;
+        }
+
+        public void close() {
+            closed = true;
+            request.abort();
+        }
+    }
+
+    /**
+     * The pages that are currently read in the background, so that they can be closed when their elements are no
+     * longer needed, even if the pages are still referenced
+     */
+    static final class Streams {
+        private final Set<Stream> streams;
+
+        public Streams() {
+            this.streams = Collections.newSetFromMap(new ConcurrentHashMap<Stream, Boolean>());
+        }
+
+        /**
+         * @return The number of pages that are still being read
+         */
+        public int size() {
+            return streams.size();
+        }
+
+        /**
+         * Aborts the requests of all pages that are still being read. Reading the remaining elements of these pages
+         * fails afterwards.
+         */
+        public void closeAll() {
+            for (Stream stream : streams) {
+                stream.close();
+            }
+        }
+    }
+
+    private static class Failure {
+        private final Throwable throwable;
+
+        public Failure(Throwable throwable) {
+            this.throwable = throwable;
+        }
+
+        public RuntimeException rethrow() {
+            if (throwable instanceof RuntimeException) {
+                throw (RuntimeException) throwable;
+            } else if (throwable instanceof Error) {
+                throw (Error) throwable;
+            } else {
+                throw new IllegalStateException(throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.pascalgn.jiracli.util.InterruptedError;
+
+/**
+ * Token bucket limiting the number of requests sent to a server. All requests will also be delayed after the
+ * server asked to slow down, see {@link #pause(long)}.
+ */
+class RateLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double permitsPerSecond;
+    private final double maxPermits;
+
+    private double permits;
+    private long lastRefill;
+    private long pausedUntil;
+
+    /**
+     * @param permitsPerSecond The number of requests per second, or 0 to only limit requests after a pause
+     */
+    public RateLimiter(double permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = Math.max(1, permitsPerSecond);
+        this.permits = maxPermits;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Blocks until the next request may be sent
+     */
+    public void acquire() {
+        while (true) {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (pausedUntil - now > 0) {
+                    wait = pausedUntil - now;
+                } else if (permitsPerSecond <= 0) {
+                    return;
+                } else {
+                    permits = Math.min(maxPermits, permits + (now - lastRefill) * permitsPerSecond / NANOS_PER_SECOND);
+                    lastRefill = now;
+                    if (permits >= 1) {
+                        permits -= 1;
+                        return;
+                    }
+                    wait = (long) ((1 - permits) * NANOS_PER_SECOND / permitsPerSecond);
+                }
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                throw new InterruptedError(e);
+            }
+        }
+    }
+
+    /**
+     * Don't allow any requests for the given time, in milliseconds
+     */
+    public synchronized void pause(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+    }
+}
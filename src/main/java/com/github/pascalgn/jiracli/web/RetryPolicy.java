@@ -0,0 +1,110 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+
+/**
+ * Decides if and when a request should be retried after the server indicated that it is overloaded
+ */
+class RetryPolicy {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(
+            Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+
+    private static final long INITIAL_DELAY = 500;
+    private static final long MAX_DELAY = 30000;
+
+    /**
+     * Maximum time to wait when the server sends a <code>Retry-After</code> header, in milliseconds
+     */
+    private static final long MAX_RETRY_AFTER = 300000;
+
+    private final int maxRetries;
+    private final Random random;
+
+    public RetryPolicy() {
+        this(Integer.getInteger("jiracli.http.maxRetries", 5));
+    }
+
+    public RetryPolicy(int maxRetries) {
+        this.maxRetries = maxRetries;
+        this.random = new Random();
+    }
+
+    /**
+     * Requests that are not idempotent, like <code>POST</code>, are only retried if the server has certainly not
+     * processed them: A <code>503</code> might also come from a proxy after the request has been forwarded, unless the
+     * server asks to retry with a <code>Retry-After</code> header.
+     *
+     * @param method The HTTP method of the request
+     * @param attempt The number of retries already done for this request, starting with 0
+     */
+    public boolean shouldRetry(String method, HttpResponse response, int attempt) {
+        if (attempt >= maxRetries) {
+            return false;
+        }
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == TOO_MANY_REQUESTS) {
+            return true;
+        } else if (statusCode == SERVICE_UNAVAILABLE) {
+            return IDEMPOTENT_METHODS.contains(method.toUpperCase()) || getRetryAfter(response) != null;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * @param attempt The number of retries already done for this request, starting with 0
+     * @return The time to wait before the next attempt, in milliseconds
+     */
+    public long getDelay(HttpResponse response, int attempt) {
+        Long retryAfter = getRetryAfter(response);
+        if (retryAfter != null) {
+            return Math.min(Math.max(retryAfter, 0), MAX_RETRY_AFTER);
+        }
+        // exponential backoff with jitter, so that concurrent requests don't retry at the same time
+        long delay = Math.min(INITIAL_DELAY << Math.min(attempt, 16), MAX_DELAY);
+        long half = delay / 2;
+        synchronized (random) {
+            return half + (long) (random.nextDouble() * half);
+        }
+    }
+
+    private static Long getRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        if (header == null || header.getValue() == null) {
+            return null;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Long.parseLong(value) * 1000;
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return (date == null ? null : date.getTime() - System.currentTimeMillis());
+        }
+    }
+}
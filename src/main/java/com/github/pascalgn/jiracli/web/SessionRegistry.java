@@ -0,0 +1,90 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.http.client.CookieStore;
+import org.apache.http.impl.client.BasicCookieStore;
+
+/**
+ * Session cookies shared by all HTTP clients of this process, for example of multiple console windows, by server and
+ * user, so that a session only needs to be created once
+ */
+final class SessionRegistry {
+    private static final Map<String, Session> SESSIONS = new HashMap<>();
+
+    private SessionRegistry() {
+        // only static methods
+    }
+
+    /**
+     * @return The session for the given server and user, which must be released by calling {@link #release(Session)}
+     */
+    public static synchronized Session acquire(String baseUrl, String username) {
+        String key = username + "@" + baseUrl;
+        Session session = SESSIONS.get(key);
+        if (session == null) {
+            session = new Session(key);
+            SESSIONS.put(key, session);
+        }
+        ++session.references;
+        return session;
+    }
+
+    /**
+     * Discards the cookies of the given session, if it is not used anymore
+     */
+    public static synchronized void release(Session session) {
+        if (SESSIONS.get(session.key) != session) {
+            throw new IllegalArgumentException("Session not registered: " + session.key);
+        }
+        if (--session.references == 0) {
+            SESSIONS.remove(session.key);
+            session.cookieStore.clear();
+        }
+    }
+
+    static final class Session {
+        private final String key;
+        private final CookieStore cookieStore;
+
+        private int references;
+        private int created;
+
+        private Session(String key) {
+            this.key = key;
+            this.cookieStore = new BasicCookieStore();
+        }
+
+        public CookieStore getCookieStore() {
+            return cookieStore;
+        }
+
+        /**
+         * @return The number of times a session has been created, to detect if another request has already created a
+         *         new session
+         */
+        public synchronized int getCreated() {
+            return created;
+        }
+
+        synchronized void created() {
+            ++created;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import com.github.pascalgn.jiracli.util.InterruptedError;
+
+/**
+ * Makes sure that a value is only loaded once at a time: callers requesting a key that is already being loaded
+ * wait for that call to finish and share its result, while different keys are loaded in parallel
+ */
+class SingleFlight<V> {
+    private final ConcurrentMap<String, FutureTask<V>> calls;
+
+    public SingleFlight() {
+        this.calls = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param loader Called in the current thread, unless another call for the same key is already in progress
+     */
+    public V get(String key, Callable<V> loader) {
+        FutureTask<V> task = new FutureTask<>(loader);
+        FutureTask<V> existing = calls.putIfAbsent(key, task);
+        if (existing == null) {
+            try {
+                task.run();
+            } finally {
+                calls.remove(key, task);
+            }
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            throw new InterruptedError(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
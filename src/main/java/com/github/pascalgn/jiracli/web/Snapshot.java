@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * The issues of a search, together with the time of the search, so that only the issues updated since then
+ * have to be loaded again
+ */
+final class Snapshot {
+    private final long updated;
+    private final String fields;
+    private final Map<String, CompactFields> issues;
+
+    /**
+     * @param updated The time the search was started, in milliseconds since epoch
+     * @param fields The fields parameter of the search
+     * @param issues The fields of the issues, by key, in the order of the search results
+     */
+    public Snapshot(long updated, String fields, Map<String, CompactFields> issues) {
+        this.updated = updated;
+        this.fields = fields;
+        this.issues = issues;
+    }
+
+    public static Snapshot parse(String str) {
+        JSONObject json = new JSONObject(str);
+        Map<String, CompactFields> issues = new LinkedHashMap<>();
+        for (Object obj : json.getJSONArray("issues")) {
+            JSONObject issue = (JSONObject) obj;
+            issues.put(issue.getString("key"), CompactFields.of(issue.getJSONObject("fields")));
+        }
+        return new Snapshot(json.getLong("updated"), json.getString("fields"), issues);
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public String getFields() {
+        return fields;
+    }
+
+    public Map<String, CompactFields> getIssues() {
+        return Collections.unmodifiableMap(issues);
+    }
+
+    public long getWeight() {
+        long weight = 64;
+        for (Map.Entry<String, CompactFields> entry : issues.entrySet()) {
+            weight += 32 + CacheImpl.getWeight(entry.getKey()) + entry.getValue().getWeight();
+        }
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        JSONArray array = new JSONArray();
+        for (Map.Entry<String, CompactFields> entry : issues.entrySet()) {
+            array.put(new JSONObject().put("key", entry.getKey()).put("fields", entry.getValue().toJSONObject()));
+        }
+        JSONObject json = new JSONObject();
+        json.put("updated", updated);
+        json.put("fields", fields);
+        json.put("issues", array);
+        return json.toString();
+    }
+}
@@ -27,6 +27,8 @@ import java.util.regex.Pattern;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import com.github.pascalgn.jiracli.model.Field;
+import com.github.pascalgn.jiracli.model.Issue;
 import com.github.pascalgn.jiracli.model.Status;
 import com.github.pascalgn.jiracli.model.Step;
 import com.github.pascalgn.jiracli.model.Transition;
@@ -47,6 +49,31 @@ class WorkflowHelper {
         return null;
     }
 
+    /**
+     * @return A key for the project and the issue type of the given issue, or the issue key itself, if the project or
+     *         the issue type is not known. The project is taken from the issue's fields, because the key of an issue
+     *         that has been moved to another project still starts with the key of the previous project.
+     */
+    public static String getWorkflowKey(Issue issue) {
+        String project = getId(issue, "project");
+        String issueType = getId(issue, "issuetype");
+        if (project == null || issueType == null) {
+            return issue.getKey();
+        } else {
+            return project + "/" + issueType;
+        }
+    }
+
+    private static String getId(Issue issue, String fieldId) {
+        Field field = issue.getFieldMap().getFieldById(fieldId);
+        Object value = (field == null ? null : field.getValue().get());
+        if (value instanceof JSONObject && ((JSONObject) value).has("id")) {
+            return ((JSONObject) value).get("id").toString();
+        } else {
+            return null;
+        }
+    }
+
     private static String urlDecode(String str) {
         try {
             return URLDecoder.decode(str, "UTF-8");
@@ -0,0 +1,292 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.command.Command;
+import com.github.pascalgn.jiracli.command.CommandFactory;
+import com.github.pascalgn.jiracli.context.Context;
+import com.github.pascalgn.jiracli.model.Data;
+import com.github.pascalgn.jiracli.model.Text;
+import com.github.pascalgn.jiracli.model.TextList;
+import com.github.pascalgn.jiracli.testutil.MockContext;
+import com.github.pascalgn.jiracli.util.Function;
+import com.github.pascalgn.jiracli.util.Hint;
+
+public class PipelineTest {
+    @Test
+    public void test1a() throws Exception {
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        Command append = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().convertingSupplier(new Function<Text, Text>() {
+                    @Override
+                    public Text apply(Text text, Set<Hint> hints) {
+                        threads.add(Thread.currentThread().getName());
+                        return new Text(text.getText() + "!");
+                    }
+                }));
+            }
+        };
+
+        List<Text> input = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            input.add(new Text(Integer.toString(i)));
+        }
+
+        List<Text> result;
+        try (Pipeline pipeline = new Pipeline.Builder().add(append).add(append).parallel(true).build()) {
+            Data data = pipeline.execute(new MockContext(), new TextList(input.iterator()));
+            result = data.toTextListOrFail().remaining(Hint.none());
+        }
+
+        assertEquals(1000, result.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i + "!!", result.get(i).getText());
+        }
+        assertEquals(2, threads.size());
+        assertNotEquals(Collections.singleton(Thread.currentThread().getName()), threads);
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        Command fail = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().convertingSupplier(new Function<Text, Text>() {
+                    @Override
+                    public Text apply(Text text, Set<Hint> hints) {
+                        throw new IllegalStateException("Failed: " + text.getText());
+                    }
+                }));
+            }
+        };
+        Command identity = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return input;
+            }
+        };
+
+        try (Pipeline pipeline = new Pipeline.Builder().add(fail).add(identity).parallel(true).build()) {
+            Data data = pipeline.execute(new MockContext(), new TextList(new Text("1")));
+            data.toTextListOrFail().remaining(Hint.none());
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            assertEquals("Failed: 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        Command count = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().convertingSupplier(new Function<Text, Text>() {
+                    @Override
+                    public Text apply(Text text, Set<Hint> hints) {
+                        invocations.incrementAndGet();
+                        return text;
+                    }
+                }));
+            }
+        };
+        Command head = CommandFactory.getInstance().parseCommand("head", Arrays.asList("-n", "1"));
+
+        List<Text> input = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            input.add(new Text(Integer.toString(i)));
+        }
+
+        List<Text> result;
+        try (Pipeline pipeline = new Pipeline.Builder().add(count).add(head).parallel(true).build()) {
+            Data data = pipeline.execute(new MockContext(), new TextList(input.iterator()));
+            result = data.toTextListOrFail().remaining(Hint.none());
+        }
+
+        assertEquals(1, result.size());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        // every item waits until four items are processed at the same time:
+        final CyclicBarrier barrier = new CyclicBarrier(4);
+        Command await = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().parallelConvertingSupplier(Hint.none(),
+                        new Function<Text, Text>() {
+                            @Override
+                            public Text apply(Text text, Set<Hint> hints) {
+                                try {
+                                    barrier.await(10, TimeUnit.SECONDS);
+                                } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                                    throw new IllegalStateException(e);
+                                }
+                                return new Text(text.getText() + "!");
+                            }
+                        }));
+            }
+        };
+
+        List<Text> input = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            input.add(new Text(Integer.toString(i)));
+        }
+
+        List<Text> result;
+        try (Pipeline pipeline = new Pipeline.Builder().add(await).concurrency(4).build()) {
+            Data data = pipeline.execute(new MockContext(), new TextList(input.iterator()));
+            result = data.toTextListOrFail().remaining(pipeline.getHints());
+        }
+
+        assertEquals(20, result.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i + "!", result.get(i).getText());
+        }
+    }
+
+    @Test
+    public void test2b() throws Exception {
+        // the first item will only be completed after the second item has been completed:
+        final CountDownLatch latch = new CountDownLatch(1);
+        Command delay = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().parallelConvertingSupplier(Hint.none(),
+                        new Function<Text, Text>() {
+                            @Override
+                            public Text apply(Text text, Set<Hint> hints) {
+                                if (text.getText().equals("1")) {
+                                    try {
+                                        latch.await(10, TimeUnit.SECONDS);
+                                        Thread.sleep(200);
+                                    } catch (InterruptedException e) {
+                                        throw new IllegalStateException(e);
+                                    }
+                                } else {
+                                    latch.countDown();
+                                }
+                                return text;
+                            }
+                        }));
+            }
+        };
+
+        List<Text> result;
+        try (Pipeline pipeline = new Pipeline.Builder().add(delay).concurrency(2).ordered(false).build()) {
+            Data data = pipeline.execute(new MockContext(), new TextList(new Text("1"), new Text("2")));
+            result = data.toTextListOrFail().remaining(pipeline.getHints());
+        }
+
+        assertEquals(2, result.size());
+        assertEquals("2", result.get(0).getText());
+        assertEquals("1", result.get(1).getText());
+    }
+
+    @Test
+    public void test2c() throws Exception {
+        final AtomicInteger invocations = new AtomicInteger();
+        Command count = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().parallelConvertingSupplier(Hint.none(),
+                        new Function<Text, Text>() {
+                            @Override
+                            public Text apply(Text text, Set<Hint> hints) {
+                                invocations.incrementAndGet();
+                                return text;
+                            }
+                        }));
+            }
+        };
+        Command head = CommandFactory.getInstance().parseCommand("head", Arrays.asList("-n", "1"));
+
+        List<Text> input = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            input.add(new Text(Integer.toString(i)));
+        }
+
+        List<Text> result;
+        try (Pipeline pipeline = new Pipeline.Builder().add(count).add(head).concurrency(8).build()) {
+            Data data = pipeline.execute(new MockContext(), new TextList(input.iterator()));
+            result = data.toTextListOrFail().remaining(pipeline.getHints());
+        }
+
+        assertEquals(1, result.size());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    public void test3a() throws Exception {
+        Command even = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(input.toTextListOrFail().convertingSupplier(new Function<Text, Text>() {
+                    @Override
+                    public Text apply(Text text, Set<Hint> hints) {
+                        return (Integer.parseInt(text.getText()) % 2 == 0 ? text : null);
+                    }
+                }));
+            }
+        };
+
+        List<Text> input = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            input.add(new Text(Integer.toString(i)));
+        }
+
+        // items converted to null are skipped, whether they are requested one by one or in batches:
+        List<String> single = new ArrayList<>();
+        List<String> batches = new ArrayList<>();
+        try (Pipeline pipeline = new Pipeline.Builder().add(even).build()) {
+            TextList textList = pipeline.execute(new MockContext(), new TextList(input.iterator())).toTextListOrFail();
+            Text text;
+            while ((text = textList.next(Hint.none())) != null) {
+                single.add(text.getText());
+            }
+        }
+        try (Pipeline pipeline = new Pipeline.Builder().add(even).build()) {
+            TextList textList = pipeline.execute(new MockContext(), new TextList(input.iterator())).toTextListOrFail();
+            for (Text text : textList.remaining(Hint.none())) {
+                batches.add(text.getText());
+            }
+        }
+        assertEquals(Arrays.asList("0", "2", "4", "6", "8"), single);
+        assertEquals(single, batches);
+    }
+}
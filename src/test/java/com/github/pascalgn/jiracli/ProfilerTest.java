@@ -0,0 +1,110 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.command.Command;
+import com.github.pascalgn.jiracli.context.Context;
+import com.github.pascalgn.jiracli.model.Data;
+import com.github.pascalgn.jiracli.model.IssueHint;
+import com.github.pascalgn.jiracli.model.Text;
+import com.github.pascalgn.jiracli.model.TextList;
+import com.github.pascalgn.jiracli.testutil.MockContext;
+import com.github.pascalgn.jiracli.util.Function;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Supplier;
+
+public class ProfilerTest {
+    private static final Command APPEND = new Command() {
+        @Override
+        public Data execute(Context context, Data input) {
+            TextList textList = input.toTextListOrFail();
+            return new TextList(textList.convertingSupplier(IssueHint.fields("summary"), new Function<Text, Text>() {
+                @Override
+                public Text apply(Text text, Set<Hint> hints) {
+                    return new Text(text.getText() + "!");
+                }
+            }));
+        }
+    };
+
+    @Test
+    public void test1a() throws Exception {
+        Command source = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(new Text("1"), new Text("2"), new Text("3"));
+            }
+        };
+
+        Profiler profiler = new Profiler(null, true);
+        List<Text> result;
+        try (Pipeline pipeline = new Pipeline.Builder().add(profiler.add(source, "source"))
+                .add(profiler.add(APPEND, "append")).build()) {
+            Data data = pipeline.execute(new MockContext(), null);
+            result = data.toTextListOrFail().remaining(Hint.none());
+        }
+
+        assertEquals(3, result.size());
+        assertEquals("3!", result.get(2).getText());
+
+        List<String> summary = profiler.getSummary();
+        assertEquals(3, summary.size());
+        String expected = "1\\. source: [0-9]+ ms, 0 requests, 0 cache hits.*, 3 items";
+        assertTrue(summary.get(0), summary.get(0).matches(expected));
+        assertTrue(summary.get(1), summary.get(1).startsWith("2. append: "));
+        assertTrue(summary.get(1), summary.get(1).endsWith(", 3 items"));
+        assertTrue(summary.get(2), summary.get(2).startsWith("Total: "));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        Command source = new Command() {
+            @Override
+            public Data execute(Context context, Data input) {
+                return new TextList(new Supplier<Text>() {
+                    @Override
+                    public Text get(Set<Hint> hints) {
+                        fail("No items should be requested");
+                        return null;
+                    }
+                });
+            }
+        };
+
+        Profiler profiler = new Profiler(null, false);
+        try (Pipeline pipeline = new Pipeline.Builder().add(profiler.add(source, "source"))
+                .add(profiler.add(APPEND, "append")).build()) {
+            Data data = pipeline.execute(new MockContext(), null);
+            assertEquals(0, data.toTextListOrFail().remaining(Hint.none()).size());
+        }
+
+        List<String> hints = profiler.getHints();
+        assertEquals(4, hints.size());
+        assertEquals("1. source", hints.get(0));
+        assertEquals("   requested with: Field[field=summary]", hints.get(1));
+        assertEquals("2. append", hints.get(2));
+        assertEquals("   requested with: -", hints.get(3));
+    }
+}
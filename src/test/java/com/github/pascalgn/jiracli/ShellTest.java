@@ -0,0 +1,105 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.github.pascalgn.jiracli.context.WebService.Request;
+import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.testutil.IssueFactory;
+import com.github.pascalgn.jiracli.testutil.MockContext;
+
+public class ShellTest {
+    @Test
+    public void test1a() throws Exception {
+        MockContext context = new MockContext();
+        new Shell(context).execute("explain create -p X");
+
+        String output = context.getConsole().getOutput();
+        assertTrue(output, output.startsWith("1. create -p X"));
+        assertTrue(output, output.contains("not executed"));
+        Mockito.verifyZeroInteractions(context.getWebService());
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        MockContext context = new MockContext();
+        new Shell(context).execute("explain search 'project = X' | head -n 3 | transition Done");
+
+        String output = context.getConsole().getOutput();
+        assertTrue(output, output.contains("1. search 'project = X'"));
+        assertTrue(output, output.contains("3. transition Done"));
+        assertTrue(output, output.contains("not executed"));
+        Mockito.verifyZeroInteractions(context.getWebService());
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        MockContext context = new MockContext();
+        new Shell(context).execute("explain search 'project = X' | head -n 3");
+
+        String output = context.getConsole().getOutput();
+        assertTrue(output, output.contains("requested with: Limit[limit=3]"));
+        Mockito.verifyZeroInteractions(context.getWebService());
+    }
+
+    @Test
+    public void test1d() throws Exception {
+        MockContext context = new MockContext();
+        new Shell(context).execute("explain cache -c");
+        new Shell(context).execute("explain stats -c");
+
+        String output = context.getConsole().getOutput();
+        assertTrue(output, output.contains("1. cache -c"));
+        assertTrue(output, output.contains("1. stats -c"));
+        assertTrue(output, output.contains("not executed"));
+        assertFalse(output, output.contains("cleared"));
+        Mockito.verifyZeroInteractions(context.getWebService());
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        final MockContext context = new MockContext();
+        List<Issue> issues = new AbstractList<Issue>() {
+            @Override
+            public Issue get(int index) {
+                context.getConsole().println("fetched " + index);
+                return IssueFactory.create("X-" + (index + 1));
+            }
+
+            @Override
+            public int size() {
+                return 100;
+            }
+        };
+        Mockito.when(context.getWebService().searchIssues(Mockito.anyString(), Mockito.any(Request.class)))
+                .thenReturn(issues);
+        new Shell(context).execute("search 'project = X'");
+
+        // the first issue is printed before more issues are requested:
+        String output = context.getConsole().getOutput();
+        String newline = System.lineSeparator();
+        assertTrue(output, output.startsWith("fetched 0" + newline + "X-1" + newline + "fetched 1" + newline));
+        assertTrue(output, output.contains("X-100"));
+    }
+}
@@ -17,7 +17,10 @@ package com.github.pascalgn.jiracli.command;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.json.JSONObject;
 import org.junit.Test;
@@ -26,9 +29,12 @@ import com.github.pascalgn.jiracli.context.Context;
 import com.github.pascalgn.jiracli.model.Data;
 import com.github.pascalgn.jiracli.model.Issue;
 import com.github.pascalgn.jiracli.model.IssueList;
+import com.github.pascalgn.jiracli.model.Text;
+import com.github.pascalgn.jiracli.model.TextList;
 import com.github.pascalgn.jiracli.testutil.IssueFactory;
 import com.github.pascalgn.jiracli.testutil.MockContext;
 import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Supplier;
 
 public class FilterTest {
     @Test
@@ -65,6 +71,46 @@ public class FilterTest {
         assertEquals("ISSUE-2", result.get(1).getKey());
     }
 
+    @Test
+    public void test3a() throws Exception {
+        Context context = new MockContext();
+
+        Issue issue1 = IssueFactory.create("ISSUE-1", "author", new JSONObject("{name:'Test1'}"));
+        Issue issue2 = IssueFactory.create("ISSUE-2", "author", new JSONObject("{name:'Test2'}"));
+        IssueList issueList = new IssueList(issue1, issue2);
+
+        Filter filter = new Filter(true, false, "author.name", "Test[0-9]");
+        IssueList result = filter.execute(context, issueList).toIssueListOrFail();
+
+        List<Issue> batch1 = result.nextBatch(1, Hint.none());
+        assertEquals(1, batch1.size());
+        assertEquals("ISSUE-1", batch1.get(0).getKey());
+
+        List<Issue> batch2 = result.nextBatch(10, Hint.none());
+        assertEquals(1, batch2.size());
+        assertEquals("ISSUE-2", batch2.get(0).getKey());
+
+        assertEquals(0, result.nextBatch(10, Hint.none()).size());
+    }
+
+    @Test
+    public void test3b() throws Exception {
+        final Iterator<String> values = Arrays.asList("a1", "b", "c", "a2").iterator();
+        TextList textList = new TextList(new Supplier<Text>() {
+            @Override
+            public Text get(Set<Hint> hints) {
+                return (values.hasNext() ? new Text(values.next()) : null);
+            }
+        });
+
+        Data result = new Filter(null, "a").execute(new MockContext(), textList);
+
+        List<Text> batch = result.toTextListOrFail().nextBatch(10, Hint.none());
+        assertEquals(2, batch.size());
+        assertEquals("a1", batch.get(0).getText());
+        assertEquals("a2", batch.get(1).getText());
+    }
+
     private static List<Issue> filterIssueList(Filter filter) {
         Context context = new MockContext();
 
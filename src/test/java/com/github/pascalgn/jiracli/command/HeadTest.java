@@ -0,0 +1,66 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.command;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.model.Data;
+import com.github.pascalgn.jiracli.model.IssueHint;
+import com.github.pascalgn.jiracli.model.Text;
+import com.github.pascalgn.jiracli.model.TextList;
+import com.github.pascalgn.jiracli.testutil.MockContext;
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Supplier;
+
+public class HeadTest {
+    @Test
+    public void test1a() throws Exception {
+        final List<Integer> limits = new ArrayList<>();
+        TextList input = new TextList(new Supplier<Text>() {
+            private int index = 0;
+
+            @Override
+            public Text get(Set<Hint> hints) {
+                limits.add(IssueHint.getLimit(hints));
+                return new Text(Integer.toString(index++));
+            }
+        });
+
+        Data result = new Head(3).execute(new MockContext(), input);
+
+        List<String> texts = new ArrayList<>();
+        for (Text text : result.toTextListOrFail().remaining(Hint.none())) {
+            texts.add(text.getText());
+        }
+        assertEquals(Arrays.asList("0", "1", "2"), texts);
+        assertEquals(Arrays.asList(3, 2, 1), limits);
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        Set<Hint> hints = new HashSet<>(Arrays.<Hint> asList(IssueHint.limit(5), IssueHint.limit(2)));
+        assertEquals(2, IssueHint.getLimit(hints));
+        assertEquals(0, IssueHint.getLimit(Hint.none()));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.command;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.github.pascalgn.jiracli.testutil.MockContext;
+
+public class QueryPlannerTest {
+    @Test
+    public void test1a() throws Exception {
+        List<Command> result = plan(new Search("project = X"), new Filter("status", "Done"));
+        assertEquals(1, result.size());
+        assertEquals("(project = X) AND status IN (\"Done\", \"Done Verified\")", getJql(result));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        Filter filter = new Filter("summary", "Test");
+        List<Command> result = plan(new Search("project = X"), filter, new Filter(true, false, "status", "^Open$"));
+        assertEquals(2, result.size());
+        assertEquals("(project = X) AND status IN (\"Open\")", getJql(result));
+        assertSame(filter, result.get(1));
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        List<Command> commands = Arrays.<Command> asList(new Search("project = X"), new Filter("status", "Unknown"));
+        assertSame(commands, new QueryPlanner(createContext()).plan(commands));
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        Sort sort = new Sort(Collections.singletonList("key"), false, false, false);
+        List<Command> result = plan(new Search("project = X order by created DESC"), sort);
+        assertEquals(1, result.size());
+        assertEquals("project = X ORDER BY key ASC", getJql(result));
+    }
+
+    @Test
+    public void test2b() throws Exception {
+        Sort sort = new Sort(Collections.singletonList("key"), false, true, false);
+        Head head = new Head();
+        List<Command> result = plan(new Search("project = X ORDER BY created"), new Filter("status", "Open"), sort,
+                head);
+        assertEquals(3, result.size());
+        assertEquals("(project = X) AND status IN (\"Open\") ORDER BY created", getJql(result));
+        assertSame(sort, result.get(1));
+        assertSame(head, result.get(2));
+    }
+
+    @Test
+    public void test2c() throws Exception {
+        Search search = (Search) CommandFactory.getInstance().parseCommand("search",
+                Collections.singletonList("summary ~ \"order by x\""));
+        Filter filter = (Filter) CommandFactory.getInstance().parseCommand("filter",
+                Arrays.asList("-f", "status", "Done"));
+        List<Command> result = plan(search, filter);
+        assertEquals(1, result.size());
+        assertEquals("(summary ~ \"order by x\") AND status IN (\"Done\", \"Done Verified\")", getJql(result));
+    }
+
+    @Test
+    public void test3a() throws Exception {
+        Filter inverse = (Filter) CommandFactory.getInstance().parseCommand("filter",
+                Arrays.asList("-v", "-f", "status", "Done"));
+        List<Command> result = plan(new Search("project = X"), inverse);
+        assertEquals(1, result.size());
+        assertEquals("(project = X) AND (status NOT IN (\"Done\", \"Done Verified\") OR status IS EMPTY)",
+                getJql(result));
+    }
+
+    private static List<Command> plan(Command... commands) {
+        return new QueryPlanner(createContext()).plan(Arrays.asList(commands));
+    }
+
+    private static String getJql(List<Command> commands) {
+        return ((Search) commands.get(0)).getJql();
+    }
+
+    private static MockContext createContext() {
+        MockContext context = new MockContext();
+        Mockito.when(context.getWebService().getFieldValues("status"))
+                .thenReturn(Arrays.asList("Open", "In Progress", "Done", "Done Verified"));
+        return context;
+    }
+}
@@ -53,6 +53,14 @@ public class IntegrationTest {
         }
     }
 
+    @Test
+    public void testSearch3() throws Exception {
+        try (Context context = createContext()) {
+            ShellHelper.execute(context, "search 'key=JRA-123' | count");
+            assertEquals("1", getOutput(context));
+        }
+    }
+
     @Test
     public void testJavaScript1() throws Exception {
         try (Context context = createContext()) {
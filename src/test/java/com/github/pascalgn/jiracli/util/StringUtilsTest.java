@@ -91,4 +91,14 @@ public class StringUtilsTest {
     public void test4d() throws Exception {
         assertEquals("TeST", StringUtils.capitalize("teST"));
     }
+
+    @Test
+    public void test5a() throws Exception {
+        assertEquals("a =       AND b", StringUtils.maskQuoted("a = \"x y\" AND b"));
+    }
+
+    @Test
+    public void test5b() throws Exception {
+        assertEquals("a ~            OR b", StringUtils.maskQuoted("a ~ 'it\\'s \"x' OR b"));
+    }
 }
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Set;
+
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.pascalgn.jiracli.util.Hint;
+import com.github.pascalgn.jiracli.util.Supplier;
+import com.github.pascalgn.jiracli.web.CacheFile.Record;
+
+public class CacheFileTest {
+    private static final String BASE_URL = "https://jira.example.com";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void test1a() throws Exception {
+        File file = folder.newFile();
+        long expires = System.currentTimeMillis() + 60000;
+        new CacheFile(file, BASE_URL).write(Collections.singletonList(new Record("issues", "A-1", "{}", expires)));
+
+        Record record = new CacheFile(file, BASE_URL).read().get(0);
+        assertEquals("A-1", record.getKey());
+        assertEquals("{}", record.getValue());
+        assertEquals(expires, record.getExpires());
+
+        assertTrue(new CacheFile(file, "https://other.example.com").read().isEmpty());
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        File file = folder.newFile();
+        long expires = System.currentTimeMillis() - 1;
+        new CacheFile(file, BASE_URL).write(Collections.singletonList(new Record("issues", "A-1", "{}", expires)));
+        assertTrue(new CacheFile(file, BASE_URL).read().isEmpty());
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        CacheFile file = new CacheFile(folder.newFile(), BASE_URL);
+
+        CacheImpl cache1 = new CacheImpl(1024 * 1024);
+        cache1.setCacheFile(supplier(file));
+        cache1.putResponse("/rest/api/2/project", "[]");
+        cache1.putResponse("/rest/api/2/search?jql=project%3DA", "{}");
+        cache1.putFields("A-1", CompactFields.of(new JSONObject("{\"summary\":\"Test\"}")));
+        cache1.putWorkflowName("A/1", "Workflow");
+        cache1.save();
+
+        CacheImpl cache2 = new CacheImpl(1024 * 1024);
+        cache2.setCacheFile(supplier(file));
+        assertEquals("[]", cache2.getResponse("/rest/api/2/project"));
+        assertNull(cache2.getResponse("/rest/api/2/search?jql=project%3DA"));
+        assertEquals("Test", cache2.getFields("A-1").toJSONObject().getString("summary"));
+        assertEquals("Workflow", cache2.getWorkflowName("A/1"));
+    }
+
+    private static Supplier<CacheFile> supplier(final CacheFile file) {
+        return new Supplier<CacheFile>() {
+            @Override
+            public CacheFile get(Set<Hint> hints) {
+                return file;
+            }
+        };
+    }
+}
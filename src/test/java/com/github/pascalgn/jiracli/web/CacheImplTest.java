@@ -0,0 +1,155 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.web.CacheImpl.Category;
+
+public class CacheImplTest {
+    private static final String VALUE = "0123456789012345678901234567890123456789";
+
+    @Test
+    public void test1a() throws Exception {
+        long weight = CacheImpl.getWeight("/a") + CacheImpl.getWeight(new CachedResponse(VALUE, null, null));
+        CacheImpl cache = new CacheImpl(2 * weight);
+        cache.putResponse("/a", VALUE);
+        cache.putResponse("/b", VALUE);
+        assertEquals(VALUE, cache.getResponse("/a"));
+
+        // "/b" is the least recently used entry now:
+        cache.putResponse("/c", VALUE);
+        assertEquals(VALUE, cache.getResponse("/a"));
+        assertNull(cache.getResponse("/b"));
+        assertEquals(VALUE, cache.getResponse("/c"));
+        assertTrue(cache.getSummary().get(0).contains("2 entries"));
+        assertTrue(cache.getSummary().get(0).contains("1 evicted"));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        CacheImpl cache = new CacheImpl(100);
+        cache.putResponse("/a", VALUE + VALUE);
+        assertNull(cache.getResponse("/a"));
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        CacheImpl cache = new CacheImpl(1024);
+        cache.record(Category.SEARCHES, null);
+        cache.record(Category.SEARCHES, "");
+        cache.record(Category.SEARCHES, "");
+        assertTrue(cache.getSummary().get(1).contains("2 hits, 1 misses"));
+    }
+
+    @Test
+    public void test3a() throws Exception {
+        assertEquals(new HashSet<>(Arrays.asList("A-1", "B-22")), CacheImpl.getIssueKeys(Category.RESPONSES,
+                "/rest/api/latest/search?jql=key%20IN%20(A-1%2CB-22)", "{\"issues\":[]}"));
+    }
+
+    @Test
+    public void test3b() throws Exception {
+        JSONObject fields = new JSONObject("{\"parent\":{\"key\":\"A-2\"},\"summary\":\"Text\"}");
+        assertEquals(new HashSet<>(Arrays.asList("A-1", "A-2")), CacheImpl.getIssueKeys(Category.ISSUES, "A-1",
+                fields));
+    }
+
+    @Test
+    public void test4a() throws Exception {
+        CacheImpl cache = new CacheImpl(1024 * 1024);
+        cache.putFields("A-1", CompactFields.of(new JSONObject()));
+        cache.putFields("A-2", CompactFields.of(new JSONObject()));
+        cache.putIssues("/search?jql=project%3DA", new JSONObject("{\"issues\":[{\"key\":\"A-1\"}]}"));
+        cache.putIssues("/search?jql=project%3DB", new JSONObject("{\"issues\":[{\"key\":\"B-1\"}]}"));
+        cache.putResponse("/rest/api/latest/field", "[]");
+
+        cache.invalidate(Collections.singleton("A-1"));
+        assertNull(cache.getFields("A-1"));
+        assertNotNull(cache.getFields("A-2"));
+        assertNull(cache.getIssues("/search?jql=project%3DA"));
+        assertNotNull(cache.getIssues("/search?jql=project%3DB"));
+        assertNotNull(cache.getResponse("/rest/api/latest/field"));
+
+        cache.invalidateIssueLists();
+        assertNull(cache.getIssues("/search?jql=project%3DB"));
+        assertNotNull(cache.getFields("A-2"));
+    }
+
+    @Test
+    public void test4b() throws Exception {
+        CacheImpl cache = new CacheImpl(1024 * 1024);
+        JSONObject fields = new JSONObject("{\"parent\":{\"key\":\"A-2\"}}");
+        Snapshot snapshot = new Snapshot(0, "parent", Collections.singletonMap("A-1", CompactFields.of(fields)));
+        cache.putSnapshot("project = A", snapshot);
+        cache.invalidate(Collections.singleton("A-1"));
+        cache.invalidateIssueLists();
+        assertNotNull(cache.getSnapshot("project = A"));
+    }
+
+    @Test
+    public void test5a() throws Exception {
+        CacheImpl cache = new CacheImpl(1024 * 1024);
+        cache.putResponse("/small", "");
+        cache.putResponse("/large", VALUE + VALUE + VALUE);
+        cache.putResponse("/medium", VALUE);
+        List<String> largest = cache.getLargestEntries(2);
+        assertEquals(2, largest.size());
+        assertTrue(largest.get(0).endsWith("responses /large"));
+        assertTrue(largest.get(1).endsWith("responses /medium"));
+    }
+
+    @Test
+    public void test5b() throws Exception {
+        CacheImpl cache = new CacheImpl(1024 * 1024);
+        cache.putResponse("/rest/api/latest/field", "[]");
+        cache.putResponse("/rest/api/latest/project", "[]");
+        cache.putFields("A-1", CompactFields.of(new JSONObject()));
+        assertEquals(1, cache.evict("issues", null));
+        assertNull(cache.getFields("A-1"));
+        assertEquals(1, cache.evict(null, "project$"));
+        assertNull(cache.getResponse("/rest/api/latest/project"));
+        assertNotNull(cache.getResponse("/rest/api/latest/field"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test5c() throws Exception {
+        new CacheImpl(1024).evict("unknown", null);
+    }
+
+    @Test
+    public void test6a() throws Exception {
+        CacheImpl cache = new CacheImpl(1024 * 1024);
+        cache.putResponse("/rest/api/latest/field", new CachedResponse("[]", "\"v1\"", null));
+        assertEquals("[]", cache.getResponse("/rest/api/latest/field"));
+
+        CachedResponse response = CachedResponse.parse(cache.getExpiredResponse("/rest/api/latest/field").toString());
+        assertEquals("[]", response.getBody());
+        assertEquals("\"v1\"", response.getEtag());
+        assertNull(response.getLastModified());
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class CacheRegistryTest {
+    private static final String BASE_URL = "https://jira.example.com";
+
+    @Test
+    public void test1a() throws Exception {
+        CacheImpl cache1 = CacheRegistry.acquire(BASE_URL, "user1", false);
+        CacheImpl cache2 = CacheRegistry.acquire(BASE_URL, "user1", false);
+        CacheImpl cache3 = CacheRegistry.acquire(BASE_URL, "user2", false);
+        try {
+            assertSame(cache1, cache2);
+            assertNotSame(cache1, cache3);
+        } finally {
+            CacheRegistry.release(cache1);
+            CacheRegistry.release(cache2);
+            CacheRegistry.release(cache3);
+        }
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        CacheImpl cache1 = CacheRegistry.acquire(BASE_URL, "user1", false);
+        CacheImpl cache2 = CacheRegistry.acquire(BASE_URL, "user1", false);
+        cache1.putResponse("/a", "value");
+
+        // still used by the second instance:
+        CacheRegistry.release(cache1);
+        assertSame("value", cache2.getResponse("/a"));
+
+        CacheRegistry.release(cache2);
+        assertNull(cache2.getResponse("/a"));
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class CompactFieldsTest {
+    private static final String FIELDS = "{\"summary\":\"Text\",\"status\":{\"name\":\"Open\",\"id\":\"1\"},"
+            + "\"labels\":[\"a\",\"b\"],\"votes\":3,\"flagged\":true,\"assignee\":null}";
+
+    @Test
+    public void test1a() throws Exception {
+        JSONObject json = new JSONObject(FIELDS);
+        CompactFields fields = CompactFields.of(json);
+        assertTrue(fields.has("status"));
+        assertTrue(fields.has("assignee"));
+        assertFalse(fields.has("priority"));
+        assertTrue(json.similar(fields.toJSONObject()));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        CompactFields fields1 = CompactFields.of(new JSONObject(FIELDS));
+        CompactFields fields2 = CompactFields.of(new JSONObject(FIELDS));
+        assertEquals(fields1.getWeight(), fields2.getWeight());
+        assertTrue(fields1.getWeight() < CacheImpl.getWeight(new JSONObject(FIELDS)));
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        // all texts are counted, also when they are shared:
+        CompactFields fields1 = CompactFields.of(new JSONObject("{\"summary\":\"a\",\"status\":\"b\"}"));
+        CompactFields fields2 = CompactFields.of(new JSONObject("{\"summary\":\"aaaa\",\"status\":\"b\"}"));
+        CompactFields fields3 = CompactFields.of(new JSONObject("{\"summary\":\"a\",\"status\":\"bbbb\"}"));
+        assertEquals(fields1.getWeight() + 6, fields2.getWeight());
+        assertEquals(fields1.getWeight() + 6, fields3.getWeight());
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        CompactFields fields = CompactFields.of(new JSONObject("{\"summary\":\"Text\"}"));
+        assertSame(fields, fields.merge(new JSONObject("{\"summary\":\"Other\"}")));
+
+        CompactFields merged = fields.merge(new JSONObject("{\"summary\":\"Other\",\"votes\":1}"));
+        assertEquals("Text", merged.toJSONObject().getString("summary"));
+        assertEquals(1, merged.toJSONObject().getInt("votes"));
+    }
+}
@@ -0,0 +1,437 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.context.DefaultRequest;
+import com.github.pascalgn.jiracli.context.WebService;
+import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.testutil.MockConsole;
+import com.github.pascalgn.jiracli.util.Credentials;
+
+import fi.iki.elonen.NanoHTTPD;
+
+public class DefaultWebServiceTest {
+    private AuthServer server;
+    private UserConsole console;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new AuthServer();
+        console = new UserConsole(server.getUrl());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void test1a() throws Exception {
+        try (DefaultWebService webService = new DefaultWebService(console)) {
+            WebService.Cache cache = webService.getCache();
+            assertSame(cache, webService.getCache());
+            assertEquals(0, console.requests.get());
+
+            assertEquals("user1", webService.authenticate().getName());
+            assertEquals(1, console.requests.get());
+
+            // the user is known now, so the cache of that user is used:
+            assertNotSame(cache, webService.getCache());
+        }
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        DefaultWebService webService = new DefaultWebService(console);
+        webService.getCache();
+        webService.close();
+        try {
+            webService.getCache();
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        SearchServer searchServer = new SearchServer();
+        searchServer.put("X-1", "summary", "First");
+        searchServer.put("X-2", "summary", "Second");
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            assertEquals(Arrays.asList("X-1:First", "X-2:Second"), sync(webService, "project = X", "summary"));
+            assertEquals(1, searchServer.queries.size());
+
+            // the snapshot is reused, only the keys and the updated issues are requested:
+            searchServer.queries.clear();
+            assertEquals(Arrays.asList("X-1:First", "X-2:Second"), sync(webService, "project = X", "summary"));
+            assertEquals(2, searchServer.queries.size());
+            assertEquals("project = X [key]", searchServer.queries.get(0));
+            assertTrue(searchServer.queries.get(1).startsWith("(project = X) AND updated >= -2m ["));
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test2b() throws Exception {
+        SearchServer searchServer = new SearchServer();
+        searchServer.put("X-1", "summary", "First");
+        searchServer.put("X-2", "summary", "Second");
+        String jql = "summary ~ \"order by x\" ORDER BY key";
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            sync(webService, jql, "summary");
+
+            searchServer.queries.clear();
+            searchServer.put("X-2", "summary", "Updated");
+            assertEquals(Arrays.asList("X-1:First", "X-2:Updated"), sync(webService, jql, "summary"));
+
+            // only the ORDER BY outside of the string literal is removed:
+            String delta = searchServer.queries.get(1);
+            assertTrue(delta, delta.startsWith("(summary ~ \"order by x\") AND updated >= -2m ["));
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test2c() throws Exception {
+        SearchServer searchServer = new SearchServer();
+        searchServer.put("X-1", "summary", "First");
+        searchServer.put("X-2", "summary", "Second");
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            sync(webService, "project = X", "summary");
+
+            // issues can stop or start matching without being updated:
+            searchServer.issues.remove("X-1");
+            searchServer.put("X-3", "summary", "Third");
+            searchServer.updated.clear();
+            assertEquals(Arrays.asList("X-2:Second", "X-3:Third"), sync(webService, "project = X", "summary"));
+            assertTrue(searchServer.queries.contains("key IN (X-3) [issuetype,status,summary]"));
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test2d() throws Exception {
+        SearchServer searchServer = new SearchServer();
+        searchServer.put("X-1", "summary", "First");
+        searchServer.put("X-1", "priority", "High");
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            sync(webService, "project = X", "summary");
+
+            // the snapshot doesn't contain the priority, so all issues are requested with the fields of both requests:
+            searchServer.queries.clear();
+            assertEquals(Collections.singletonList("X-1:First:High"),
+                    sync(webService, "project = X", "summary", "priority"));
+            assertEquals(Collections.singletonList("project = X [issuetype,priority,status,summary]"),
+                    searchServer.queries);
+
+            // the widened snapshot is reused for both requests:
+            searchServer.queries.clear();
+            sync(webService, "project = X", "summary");
+            sync(webService, "project = X", "summary", "priority");
+            assertEquals(4, searchServer.queries.size());
+            for (String query : searchServer.queries) {
+                assertTrue(query, query.equals("project = X [key]") || query.contains("updated >="));
+            }
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test3a() throws Exception {
+        SearchServer searchServer = new SearchServer();
+        searchServer.put("X-1", "summary", "First");
+        searchServer.put("X-1", "priority", "High");
+        searchServer.put("X-1", "assignee", "user1");
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            assertEquals(Collections.singletonList("X-1:High"), search(webService, "project = X", "priority"));
+
+            // the new response replaces the cache entry, only fields missing in the response are kept:
+            searchServer.put("X-1", "summary", "Changed");
+            assertEquals(Collections.singletonList("X-1:user1"), search(webService, "project = X", "assignee"));
+
+            searchServer.queries.clear();
+            assertEquals(Collections.singletonList("X-1:Changed:High:user1"),
+                    search(webService, "project = X", "summary", "priority", "assignee"));
+            assertEquals(0, searchServer.queries.size());
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test4a() throws Exception {
+        SearchServer searchServer = createSearchServer(100);
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            List<Issue> issues = webService.searchIssues("project = X", new DefaultRequest(false,
+                    Collections.singletonList("summary"), Collections.<String> emptyList(), 10));
+            assertEquals("X-11", issues.get(10).getKey());
+
+            // a full page has been read, so the next pages are requested in advance (in any order):
+            awaitPages(searchServer, 5);
+            assertEquals(5, searchServer.pages.size());
+            assertEquals(new HashSet<>(Arrays.asList("0/10", "10/10", "20/10", "30/10", "40/10")),
+                    new HashSet<>(searchServer.pages));
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test4b() throws Exception {
+        SearchServer searchServer = createSearchServer(100);
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            List<Issue> issues = webService.searchIssues("project = X", new DefaultRequest(false,
+                    Collections.singletonList("summary"), Collections.<String> emptyList(), 10, 3));
+            assertEquals("X-4", issues.get(3).getKey());
+
+            // the first page was limited, so no further pages are requested in advance:
+            awaitPages(searchServer, 2);
+            assertEquals(Arrays.asList("0/3", "3/10"), searchServer.pages);
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test5a() throws Exception {
+        SearchServer searchServer = createSearchServer(1);
+        List<String> fields = Arrays.asList("assignee", "issuetype", "priority", "status", "summary", "created");
+        List<String> none = Collections.emptyList();
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            assertEquals("0/50", firstPage(webService, searchServer, new DefaultRequest(true)));
+            assertEquals("0/500", firstPage(webService, searchServer, new DefaultRequest("summary")));
+            assertEquals("0/500", firstPage(webService, searchServer, new DefaultRequest(false,
+                    fields.subList(0, 5), none)));
+            assertEquals("0/100", firstPage(webService, searchServer, new DefaultRequest(false, fields, none)));
+            assertEquals("0/1000", firstPage(webService, searchServer, new DefaultRequest(false, fields, none,
+                    5000)));
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    @Test
+    public void test5b() throws Exception {
+        SearchServer searchServer = createSearchServer(1);
+        try (DefaultWebService webService = new DefaultWebService(new MockConsole(searchServer.getUrl()))) {
+            // the changelog is never requested, so it doesn't make the request more expensive:
+            assertEquals("0/500", firstPage(webService, searchServer, new DefaultRequest(false,
+                    Collections.singletonList("summary"), Collections.singletonList("changelog"))));
+        } finally {
+            searchServer.stop();
+        }
+    }
+
+    private static String firstPage(WebService webService, SearchServer searchServer, DefaultRequest request) {
+        searchServer.pages.clear();
+        webService.getCache().clear();
+        webService.searchIssues("project = X", request).get(0);
+        return searchServer.pages.get(0);
+    }
+
+    private static SearchServer createSearchServer(int count) throws Exception {
+        SearchServer searchServer = new SearchServer();
+        for (int i = 1; i <= count; i++) {
+            searchServer.put("X-" + i, "summary", "Issue " + i);
+        }
+        return searchServer;
+    }
+
+    /**
+     * Waits until the given number of pages has been requested and a little longer, to catch any further requests
+     */
+    private static void awaitPages(SearchServer searchServer, int count) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (searchServer.pages.size() < count && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+    }
+
+    private static List<String> search(WebService webService, String jql, String... fields) {
+        return toStrings(webService.searchIssues(jql, new DefaultRequest(fields)), fields);
+    }
+
+    private static List<String> sync(WebService webService, String jql, String... fields) {
+        return toStrings(webService.syncIssues(jql, new DefaultRequest(fields)), fields);
+    }
+
+    private static List<String> toStrings(List<Issue> issues, String... fields) {
+        List<String> result = new ArrayList<>();
+        for (Issue issue : issues) {
+            StringBuilder str = new StringBuilder(issue.getKey());
+            for (String field : fields) {
+                str.append(":").append(issue.getFieldMap().getFieldById(field).getValue().get());
+            }
+            result.add(str.toString());
+        }
+        return result;
+    }
+
+    private static class UserConsole extends MockConsole {
+        private final AtomicInteger requests = new AtomicInteger();
+
+        public UserConsole(String baseUrl) {
+            super(baseUrl);
+        }
+
+        @Override
+        public Credentials getCredentials(String url) {
+            requests.incrementAndGet();
+            return Credentials.create("user1", "secret".toCharArray());
+        }
+    }
+
+    /**
+     * Requires basic authentication for all requests
+     */
+    private static class AuthServer extends NanoHTTPD {
+        public AuthServer() throws Exception {
+            super("localhost", 0);
+            start(NanoHTTPD.SOCKET_READ_TIMEOUT, false);
+        }
+
+        public String getUrl() {
+            return "http://localhost:" + getListeningPort();
+        }
+
+        @Override
+        public Response serve(IHTTPSession session) {
+            if (session.getHeaders().get("authorization") == null) {
+                Response response = newFixedLengthResponse(Response.Status.UNAUTHORIZED, MIME_PLAINTEXT, "");
+                response.addHeader("WWW-Authenticate", "Basic realm=\"test\"");
+                return response;
+            }
+            return newFixedLengthResponse(Response.Status.OK, "application/json", "{\"name\":\"user1\"}");
+        }
+    }
+
+    /**
+     * Answers searches for all issues, searches for the updated issues and searches by key, for the requested fields
+     * and the requested page
+     */
+    private static class SearchServer extends NanoHTTPD {
+        private final Map<String, JSONObject> issues = Collections.synchronizedMap(
+                new LinkedHashMap<String, JSONObject>());
+        private final Set<String> updated = Collections.synchronizedSet(new HashSet<String>());
+        private final List<String> queries = Collections.synchronizedList(new ArrayList<String>());
+        private final List<String> pages = Collections.synchronizedList(new ArrayList<String>());
+
+        public SearchServer() throws Exception {
+            super("localhost", 0);
+            start(NanoHTTPD.SOCKET_READ_TIMEOUT, false);
+        }
+
+        public String getUrl() {
+            return "http://localhost:" + getListeningPort();
+        }
+
+        public void put(String key, String field, String value) {
+            JSONObject fields = issues.get(key);
+            if (fields == null) {
+                fields = new JSONObject();
+                issues.put(key, fields);
+            }
+            fields.put(field, value);
+            updated.add(key);
+        }
+
+        @Override
+        public Response serve(IHTTPSession session) {
+            if (session.getUri().equals("/rest/api/latest/field")) {
+                JSONArray fields = new JSONArray();
+                for (String id : Arrays.asList("assignee", "issuetype", "priority", "status", "summary")) {
+                    fields.put(new JSONObject().put("id", id).put("name", id));
+                }
+                return newFixedLengthResponse(Response.Status.OK, "application/json", fields.toString());
+            } else if (!session.getUri().equals("/rest/api/latest/search")) {
+                return newFixedLengthResponse(Response.Status.NOT_FOUND, MIME_PLAINTEXT, "");
+            }
+
+            String jql = session.getParms().get("jql");
+            String fieldParam = session.getParms().get("fields");
+            queries.add(jql + " [" + fieldParam + "]");
+
+            String startAtParam = session.getParms().get("startAt");
+            String maxResultsParam = session.getParms().get("maxResults");
+            int startAt = (startAtParam == null ? 0 : Integer.parseInt(startAtParam));
+            int maxResults = (maxResultsParam == null ? Integer.MAX_VALUE : Integer.parseInt(maxResultsParam));
+            pages.add(startAt + "/" + maxResultsParam);
+
+            List<String> keys;
+            if (jql.startsWith("key IN (")) {
+                keys = Arrays.asList(jql.substring(8, jql.length() - 1).split(","));
+            } else if (jql.contains("updated >=")) {
+                keys = new ArrayList<>(updated);
+                Collections.sort(keys);
+            } else {
+                keys = new ArrayList<>(issues.keySet());
+            }
+
+            List<String> found = new ArrayList<>();
+            for (String key : keys) {
+                if (issues.containsKey(key)) {
+                    found.add(key);
+                }
+            }
+
+            JSONArray array = new JSONArray();
+            for (String key : found.subList(Math.min(startAt, found.size()),
+                    (int) Math.min((long) startAt + maxResults, found.size()))) {
+                JSONObject fields = issues.get(key);
+                if (fields != null) {
+                    JSONObject requested = new JSONObject();
+                    for (String field : fieldParam.split(",")) {
+                        if (fields.has(field)) {
+                            requested.put(field, fields.get(field));
+                        }
+                    }
+                    array.put(new JSONObject().put("key", key).put("fields", requested));
+                }
+            }
+            JSONObject response = new JSONObject().put("startAt", startAt).put("total", found.size())
+                    .put("issues", array);
+            return newFixedLengthResponse(Response.Status.OK, "application/json", response.toString());
+        }
+    }
+}
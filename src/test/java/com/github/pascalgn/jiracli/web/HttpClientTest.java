@@ -0,0 +1,139 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.testutil.MockConsole;
+import com.github.pascalgn.jiracli.util.Credentials;
+
+import fi.iki.elonen.NanoHTTPD;
+
+public class HttpClientTest {
+    private SessionServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new SessionServer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+    }
+
+    @Test
+    public void test1a() throws Exception {
+        try (HttpClient httpClient = new HttpClient(new UserConsole(server.getUrl(), "user1"), true)) {
+            assertEquals("user1", httpClient.get("/rest/api/latest/myself"));
+            assertEquals("user1", httpClient.get("/rest/api/latest/myself"));
+        }
+        assertEquals(1, server.sessions.get());
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        // sessions must not be shared between different users:
+        try (HttpClient httpClient1 = new HttpClient(new UserConsole(server.getUrl(), "user1"), true);
+                HttpClient httpClient2 = new HttpClient(new UserConsole(server.getUrl(), "user2"), true)) {
+            assertEquals("user1", httpClient1.get("/rest/api/latest/myself"));
+            assertEquals("user2", httpClient2.get("/rest/api/latest/myself"));
+            assertEquals("user1", httpClient1.get("/rest/api/latest/myself"));
+        }
+        assertEquals(2, server.sessions.get());
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        // instances of the same user, for example of multiple console windows, share the session:
+        try (HttpClient httpClient1 = new HttpClient(new UserConsole(server.getUrl(), "user1"), true);
+                HttpClient httpClient2 = new HttpClient(new UserConsole(server.getUrl(), "user1"), true)) {
+            assertEquals("user1", httpClient1.get("/rest/api/latest/myself"));
+            assertEquals("user1", httpClient2.get("/rest/api/latest/myself"));
+            assertEquals("user1", httpClient1.get("/rest/api/latest/myself"));
+        }
+        assertEquals(1, server.sessions.get());
+
+        // the session is discarded when it is not used anymore:
+        try (HttpClient httpClient = new HttpClient(new UserConsole(server.getUrl(), "user1"), true)) {
+            assertEquals("user1", httpClient.get("/rest/api/latest/myself"));
+        }
+        assertEquals(2, server.sessions.get());
+    }
+
+    private static class UserConsole extends MockConsole {
+        private final String username;
+
+        public UserConsole(String baseUrl, String username) {
+            super(baseUrl);
+            this.username = username;
+        }
+
+        @Override
+        public Credentials getCredentials(String url) {
+            return Credentials.create(username, "secret".toCharArray());
+        }
+    }
+
+    /**
+     * Creates sessions for any user and returns the name of the user of the session
+     */
+    private static class SessionServer extends NanoHTTPD {
+        private final Map<String, String> users = new HashMap<>();
+        private final AtomicInteger sessions = new AtomicInteger();
+
+        public SessionServer() throws Exception {
+            super("localhost", 0);
+            start(NanoHTTPD.SOCKET_READ_TIMEOUT, false);
+        }
+
+        public String getUrl() {
+            return "http://localhost:" + getListeningPort();
+        }
+
+        @Override
+        public synchronized Response serve(IHTTPSession session) {
+            if (session.getUri().equals("/rest/auth/latest/session")) {
+                Map<String, String> body = new HashMap<>();
+                try {
+                    session.parseBody(body);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                String id = "session" + sessions.incrementAndGet();
+                users.put(id, new JSONObject(body.get("postData")).getString("username"));
+                Response response = newFixedLengthResponse(Response.Status.OK, "application/json", "{}");
+                response.addHeader("Set-Cookie", "JSESSIONID=" + id + "; Path=/");
+                return response;
+            }
+            String user = users.get(session.getCookies().read("JSESSIONID"));
+            if (user == null) {
+                return newFixedLengthResponse(Response.Status.UNAUTHORIZED, MIME_PLAINTEXT, "");
+            } else {
+                return newFixedLengthResponse(Response.Status.OK, MIME_PLAINTEXT, user);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.testutil.IssueFactory;
+
+public class IssueResolverTest {
+    @Test
+    public void test1a() throws Exception {
+        List<List<String>> chunks = IssueResolver.chunks(Arrays.asList("A-1", "A-2", "A-3", "A-44"), 12);
+        assertEquals(Arrays.asList(Arrays.asList("A-1", "A-2"), Arrays.asList("A-3"), Arrays.asList("A-44")),
+                chunks);
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        assertEquals(Collections.emptyList(), IssueResolver.chunks(Collections.<String> emptyList(), 12));
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            keys.add("A-" + i);
+        }
+
+        final Pattern pattern = Pattern.compile("A-([0-9]+)");
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            IssueResolver resolver = new IssueResolver(executor, 100) {
+                @Override
+                protected List<Issue> search(String jql) {
+                    List<Issue> issues = new ArrayList<>();
+                    Matcher matcher = pattern.matcher(jql);
+                    while (matcher.find()) {
+                        // pretend that every seventh issue does not exist:
+                        if (Integer.parseInt(matcher.group(1)) % 7 != 0) {
+                            issues.add(IssueFactory.create(matcher.group()));
+                        }
+                    }
+                    return issues;
+                }
+            };
+
+            Map<String, Issue> issues = resolver.resolve(keys);
+            assertEquals(1000 - 143, issues.size());
+            assertEquals("A-999", issues.get("A-999").getKey());
+            assertFalse(issues.containsKey("A-7"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringReader;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class JsonArrayReaderTest {
+    @Test
+    public void test1a() throws Exception {
+        String json = "{\"total\":2,\"issues\":[{\"key\":\"A-1\"},{\"key\":\"A-2\"}],\"startAt\":0}";
+        JsonArrayReader reader = new JsonArrayReader(new StringReader(json), "issues");
+        assertEquals("A-1", reader.next().getString("key"));
+        assertEquals("A-2", reader.next().getString("key"));
+        assertNull(reader.next());
+        JSONObject object = reader.getObject();
+        assertEquals(2, object.getInt("total"));
+        assertEquals(0, object.getInt("startAt"));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        String json = " { \"issues\" : [ ] , \"isLast\" : true } ";
+        JsonArrayReader reader = new JsonArrayReader(new StringReader(json), "issues");
+        assertNull(reader.next());
+        assertEquals(true, reader.getObject().getBoolean("isLast"));
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        String json = "{\"values\":[{\"nested\":{\"issues\":[1,2]}}]}";
+        JsonArrayReader reader = new JsonArrayReader(new StringReader(json), "values");
+        assertEquals(2, reader.next().getJSONObject("nested").getJSONArray("issues").length());
+        assertNull(reader.next());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void test1d() throws Exception {
+        JsonArrayReader reader = new JsonArrayReader(new StringReader("{\"total\":0}"), "issues");
+        reader.next();
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONObject;
+import org.junit.Test;
+
+public class MetricsTest {
+    @Test
+    public void test1a() throws Exception {
+        URI uri = URI.create("http://localhost/rest/api/latest/issue/JRA-123/editmeta?expand=x");
+        assertEquals("/rest/api/latest/issue/{key}/editmeta", Metrics.getEndpoint(uri));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        URI uri = URI.create("http://localhost/jira/rest/agile/latest/board/12/sprint");
+        assertEquals("/jira/rest/agile/latest/board/{id}/sprint", Metrics.getEndpoint(uri));
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        Metrics metrics = new Metrics();
+
+        Metrics.Call call1 = metrics.start("GET", URI.create("http://localhost/rest/api/latest/search"), 0);
+        call1.responded(503);
+        call1.retried();
+
+        Metrics.Call call2 = metrics.start("GET", URI.create("http://localhost/rest/api/latest/search"), 0);
+        call2.responded(200);
+        HttpEntity entity = call2.wrap(new InputStreamEntity(new ByteArrayInputStream(new byte[1500])));
+        assertEquals(1500, EntityUtils.toByteArray(entity).length);
+        call2.finish();
+        call2.finish();
+
+        metrics.cacheAccess("fields", true);
+        metrics.cacheAccess("fields", false);
+        metrics.cacheAccess("fields", false);
+
+        JSONObject json = new JSONObject(metrics.toJson());
+        JSONObject search = json.getJSONObject("endpoints").getJSONObject("GET /rest/api/latest/search");
+        assertEquals(2, search.getInt("requests"));
+        assertEquals(1, search.getInt("retries"));
+        assertEquals(1500, search.getInt("bytesReceived"));
+        assertEquals(1, search.getJSONObject("statusCodes").getInt("503"));
+        assertEquals(1, search.getJSONObject("statusCodes").getInt("200"));
+        assertEquals(2, json.getJSONObject("cache").getJSONObject("fields").getInt("misses"));
+
+        metrics.clear();
+        assertEquals(1, metrics.getSummary().size());
+    }
+}
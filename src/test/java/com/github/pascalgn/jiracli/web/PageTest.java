@@ -0,0 +1,176 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.pascalgn.jiracli.testutil.MockConsole;
+
+import fi.iki.elonen.NanoHTTPD;
+
+public class PageTest {
+    private static final int ISSUES = 1000000;
+
+    private IssueServer server;
+    private HttpClient httpClient;
+    private ExecutorService executor;
+    private Page.Streams streams;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new IssueServer();
+        httpClient = new HttpClient(new MockConsole(server.getUrl()));
+        executor = Executors.newSingleThreadExecutor();
+        streams = new Page.Streams();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        httpClient.close();
+        server.stop();
+    }
+
+    @Test
+    public void test1a() throws Exception {
+        Page page = Page.stream(executor, httpClient, "/rest/api/latest/search?maxResults=3", "issues", streams, 10);
+        assertEquals("0", page.next().getString("id"));
+        assertEquals("1", page.next().getString("id"));
+        assertEquals("2", page.next().getString("id"));
+        assertNull(page.next());
+        assertEquals(3, page.getObject().getJSONArray("issues").length());
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        Page page = Page.stream(executor, httpClient, "/rest/api/latest/search", "issues", streams, 10);
+        assertEquals("0", page.next().getString("id"));
+        page.close();
+        assertNull(page.next());
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(server.written.get() < ISSUES);
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        Page page = Page.stream(executor, httpClient, "/rest/api/latest/search", "issues", streams, 10);
+        assertEquals("0", page.next().getString("id"));
+        page = null;
+
+        // the page is no longer referenced, so the request should be aborted:
+        executor.shutdown();
+        for (int i = 0; i < 100 && !executor.isTerminated(); i++) {
+            System.gc();
+            executor.awaitTermination(100, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(executor.isTerminated());
+        assertTrue(server.written.get() < ISSUES);
+    }
+
+    @Test
+    public void test1d() throws Exception {
+        Page page = Page.stream(executor, httpClient, "/rest/api/latest/search", "issues", streams, 10);
+        assertEquals("0", page.next().getString("id"));
+        assertEquals(1, streams.size());
+
+        // the page is still referenced, but will not be read anymore:
+        streams.closeAll();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, streams.size());
+        assertTrue(server.written.get() < ISSUES);
+
+        try {
+            while (page.next() != null) {
+                // only the elements read before the page was closed are available
+            }
+            fail("Expected exception");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Returns a search result with the requested number of issues, which are only created when they are read
+     */
+    private static class IssueServer extends NanoHTTPD {
+        private final AtomicInteger written = new AtomicInteger();
+
+        public IssueServer() throws Exception {
+            super("localhost", 0);
+            start(NanoHTTPD.SOCKET_READ_TIMEOUT, false);
+        }
+
+        public String getUrl() {
+            return "http://localhost:" + getListeningPort();
+        }
+
+        @Override
+        public Response serve(IHTTPSession session) {
+            String maxResults = session.getParms().get("maxResults");
+            int issues = (maxResults == null ? ISSUES : Integer.parseInt(maxResults));
+            return newChunkedResponse(Response.Status.OK, "application/json", new IssueStream(issues));
+        }
+
+        private class IssueStream extends InputStream {
+            private final int issues;
+
+            private byte[] buffer = "{\"issues\":[".getBytes(StandardCharsets.UTF_8);
+            private int position;
+            private int index;
+
+            public IssueStream(int issues) {
+                this.issues = issues;
+            }
+
+            @Override
+            public int read() {
+                if (position == buffer.length) {
+                    if (index > issues) {
+                        return -1;
+                    } else if (index == issues) {
+                        buffer = "]}".getBytes(StandardCharsets.UTF_8);
+                    } else {
+                        JSONObject issue = new JSONObject();
+                        issue.put("id", Integer.toString(index));
+                        buffer = ((index == 0 ? "" : ",") + issue).getBytes(StandardCharsets.UTF_8);
+                        written.incrementAndGet();
+                    }
+                    position = 0;
+                    ++index;
+                }
+                return buffer[position++] & 0xff;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+    @Test
+    public void test1a() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy(2);
+        assertTrue(retryPolicy.shouldRetry("GET", response(429), 0));
+        assertTrue(retryPolicy.shouldRetry("GET", response(503), 1));
+        assertFalse(retryPolicy.shouldRetry("GET", response(503), 2));
+        assertFalse(retryPolicy.shouldRetry("GET", response(500), 0));
+        assertTrue(retryPolicy.shouldRetry("PUT", response(503), 0));
+        assertTrue(retryPolicy.shouldRetry("DELETE", response(503), 0));
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        // the request might have been processed already, so it must not be sent again:
+        RetryPolicy retryPolicy = new RetryPolicy(2);
+        assertFalse(retryPolicy.shouldRetry("POST", response(503), 0));
+        assertFalse(retryPolicy.shouldRetry("POST", response(500), 0));
+    }
+
+    @Test
+    public void test1c() throws Exception {
+        RetryPolicy retryPolicy = new RetryPolicy(2);
+        assertTrue(retryPolicy.shouldRetry("POST", response(429), 0));
+        HttpResponse response = response(503);
+        response.addHeader("Retry-After", "3");
+        assertTrue(retryPolicy.shouldRetry("POST", response, 0));
+        assertFalse(retryPolicy.shouldRetry("POST", response, 2));
+    }
+
+    @Test
+    public void test2a() throws Exception {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 429, "Too Many Requests");
+        response.addHeader("Retry-After", "3");
+        assertEquals(3000, new RetryPolicy(1).getDelay(response, 0));
+    }
+
+    @Test
+    public void test2b() throws Exception {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 503, "Service Unavailable");
+        long delay = new RetryPolicy(1).getDelay(response, 2);
+        assertTrue(delay >= 1000 && delay <= 2000);
+    }
+
+    private static HttpResponse response(int statusCode) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, statusCode, "");
+    }
+}
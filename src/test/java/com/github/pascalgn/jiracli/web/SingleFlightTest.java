@@ -0,0 +1,103 @@
+/**
+ * Copyright 2016 Pascal
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.pascalgn.jiracli.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.lang.Thread.State;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+    @Test
+    public void test1a() throws Exception {
+        final SingleFlight<String> singleFlight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> loader = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "value";
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return singleFlight.get("/a", loader);
+                }
+            });
+            started.await(5, TimeUnit.SECONDS);
+
+            final AtomicReference<Thread> thread = new AtomicReference<>();
+            Future<String> second = executor.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    thread.set(Thread.currentThread());
+                    return singleFlight.get("/a", loader);
+                }
+            });
+            // wait until the second call is waiting for the first one:
+            while (thread.get() == null || thread.get().getState() != State.WAITING) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            assertEquals("value", first.get(5, TimeUnit.SECONDS));
+            assertEquals("value", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test1b() throws Exception {
+        SingleFlight<String> singleFlight = new SingleFlight<>();
+        try {
+            singleFlight.get("/a", new Callable<String>() {
+                @Override
+                public String call() {
+                    throw new IllegalArgumentException("failed");
+                }
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        // failed calls are not remembered:
+        assertEquals("value", singleFlight.get("/a", new Callable<String>() {
+            @Override
+            public String call() {
+                return "value";
+            }
+        }));
+    }
+}
@@ -17,8 +17,12 @@ package com.github.pascalgn.jiracli.web;
 
 import static org.junit.Assert.assertEquals;
 
+import org.json.JSONObject;
 import org.junit.Test;
 
+import com.github.pascalgn.jiracli.model.Issue;
+import com.github.pascalgn.jiracli.testutil.IssueFactory;
+
 public class WorkflowHelperTest {
     @Test
     public void test1a() throws Exception {
@@ -40,4 +44,24 @@ public class WorkflowHelperTest {
         assertEquals("Simplified Workflow for Project JIR",
                 WorkflowHelper.getWorkflowName("href=\"/browse/JIR-123?stepId=1&amp;" + name + "&amp;\""));
     }
+
+    @Test
+    public void test2a() throws Exception {
+        JSONObject project = new JSONObject("{\"id\":\"10000\",\"key\":\"JIR\"}");
+        JSONObject issueType = new JSONObject("{\"id\":\"10001\",\"name\":\"Bug\"}");
+        Issue issue = IssueFactory.create("JIR-123", "project", project, "issuetype", issueType);
+        assertEquals("10000/10001", WorkflowHelper.getWorkflowKey(issue));
+        assertEquals("JIR-123", WorkflowHelper.getWorkflowKey(IssueFactory.create("JIR-123")));
+    }
+
+    @Test
+    public void test2b() throws Exception {
+        // the issue has been moved from project OLD to project JIR:
+        JSONObject project = new JSONObject("{\"id\":\"10000\",\"key\":\"JIR\"}");
+        JSONObject issueType = new JSONObject("{\"id\":\"10001\",\"name\":\"Bug\"}");
+        Issue moved = IssueFactory.create("OLD-1", "project", project, "issuetype", issueType);
+        Issue issue = IssueFactory.create("JIR-123", "project", project, "issuetype", issueType);
+        assertEquals(WorkflowHelper.getWorkflowKey(issue), WorkflowHelper.getWorkflowKey(moved));
+        assertEquals("OLD-1", WorkflowHelper.getWorkflowKey(IssueFactory.create("OLD-1", "issuetype", issueType)));
+    }
 }